@@ -7,25 +7,47 @@ import javafx.scene.Scene;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 import graphvisualizer.containers.SmartGraphDemoContainer;
-import graphvisualizer.graph.AdjacencyMapDigraph;
+import graphvisualizer.graph.ConcurrentAdjacencyMapDigraph;
+import graphvisualizer.graph.Edge;
+import graphvisualizer.graph.EdgeListImporter;
+import graphvisualizer.graph.MappedCsrDigraph;
 import usecase.strongConnectedComponent.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import org.jgrapht.alg.connectivity.VisualizationStep;
+import org.jgrapht.alg.connectivity.VisualizationStepQueue;
 
 public class Main extends Application {
+    /* steps produced by an algorithm but not yet animated */
+    private static final int TRACE_CAPACITY = 1024;
+    private static final String GRAPH_FILE_EXTENSION = ".csrg";
+    /* vertices kept from an edge list, so that the graph can still be drawn */
+    private static final int IMPORTED_VERTICES = 200;
+
     @Override
     public void start(Stage ignored) {
-        final AdjacencyMapDigraph<String, Integer> defaultDigraph = new AdjacencyMapDigraph<>();
+        final ConcurrentAdjacencyMapDigraph<String, Integer> defaultDigraph = new ConcurrentAdjacencyMapDigraph<>();
         SmartPlacementStrategy strategy = new SmartCircularSortedPlacementStrategy();
-        randomGraph(defaultDigraph);
+        String loadSummary = "";
+        if (getParameters().getRaw().isEmpty()) {
+            randomGraph(defaultDigraph);
+        } else {
+            loadSummary = loadGraph(defaultDigraph, Path.of(getParameters().getRaw().get(0)));
+        }
+        DynamicSccIndex<String, Integer> sccIndex = new DynamicSccIndex<>(defaultDigraph);
+        CondensationCache<String, Integer> condensation = new CondensationCache<>(defaultDigraph);
         SmartGraphPanel<String, Integer> graphView = new SmartGraphPanel<>(defaultDigraph, strategy);
         SmartGraphDemoContainer smartGraphDemoContainer = new SmartGraphDemoContainer(graphView);
         MenuPane menu = smartGraphDemoContainer.getMenu();
-        menu.getStatusBox().setText("[Graph Strong Connected Component Algorithms Visualization]\n" + defaultDigraph);
+        menu.getStatusLog().setText("[Graph Strong Connected Component Algorithms Visualization]\n" + loadSummary
+                + defaultDigraph + "Strongly connected components: " + sccIndex.componentCount() + "\n");
 
         Scene scene = new Scene(smartGraphDemoContainer, 1024, 768);
         Stage stage = new Stage(StageStyle.DECORATED);
@@ -39,10 +61,12 @@ public class Main extends Application {
         graphView.setAutomaticLayout(true);
 
         menu.setRandomGraphButtonAction(event -> {
+            graphView.setCollapsedView(null);
             resetDefaultDigraph(defaultDigraph, graphView);
-            ((AdjacencyMapDigraph<String, Integer>) defaultDigraph).clear();
+            defaultDigraph.clear();
             generateGraph(defaultDigraph, graphView);
-            menu.getStatusBox().appendText("[Graph]\n" + defaultDigraph);
+            menu.getStatusLog().append("[Graph]\n" + defaultDigraph
+                    + "Strongly connected components: " + sccIndex.componentCount() + "\n");
             graphView.update();
         });
 
@@ -52,8 +76,9 @@ public class Main extends Application {
                 mapV.put(vertex.element(), vertex);
             }
             Visualization v = new Visualization("kosaraju", defaultDigraph);
-            List<VisualizationStep> vr = v.visualize();
-            ScreenRerender sr = new ScreenRerender(vr, graphView, mapV, menu, defaultDigraph);
+            VisualizationStepQueue steps = new VisualizationStepQueue(TRACE_CAPACITY);
+            startProducer(v, steps);
+            ScreenRerender sr = new ScreenRerender(steps, graphView, mapV, menu);
             sr.start();
         });
 
@@ -63,48 +88,115 @@ public class Main extends Application {
                 mapV.put(vertex.element(), vertex);
             }
             Visualization v = new Visualization("tarjan", defaultDigraph);
-            List<VisualizationStep> vr = v.visualize();
-            ScreenRerender sr = new ScreenRerender(vr, graphView, mapV, menu, defaultDigraph);
+            VisualizationStepQueue steps = new VisualizationStepQueue(TRACE_CAPACITY);
+            startProducer(v, steps);
+            ScreenRerender sr = new ScreenRerender(steps, graphView, mapV, menu);
             sr.start();
         });
 
+        menu.setCollapseButtonAction(event -> {
+            if (graphView.isCollapsedView()) {
+                graphView.setCollapsedView(null);
+                menu.getStatusLog().append("SCCs expanded.\n");
+            } else {
+                Condensation<String> c = condensation.get();
+                graphView.setCollapsedView(c.components());
+                menu.getStatusLog().append("[Condensation] " + c.componentCount() + " components, "
+                        + c.edgeCount() + " edges\n");
+            }
+        });
+
         menu.setResetButtonAction(event -> {
+            graphView.setCollapsedView(null);
             resetDefaultDigraph(defaultDigraph, graphView);
-            menu.getStatusBox().setText("Graph has been reset.\n\n" + defaultDigraph);
+            menu.getStatusLog().setText("Graph has been reset.\n\n" + defaultDigraph);
         });
     }
 
     public static void main(String[] args) {
         launch(args);
     }
-    private void randomGraph(Graph<String, Integer> defaultDigraph)
+    /* inserted in one go, so that each vertex copies its adjacencies once */
+    private void randomGraph(ConcurrentAdjacencyMapDigraph<String, Integer> defaultDigraph)
     {
         Random rn = new Random();
         int numberOfVertices = rn.nextInt(12-7+1)+7;
         double p = 1.5/numberOfVertices;
         String Arr[] = {"a","b","c","d","e","f","g","h","i","k","l","m","n","o","p","q"};
+        List<String> vertices = new ArrayList<>();
         for(int i =0; i<numberOfVertices;i++){
-            defaultDigraph.insertVertex(Arr[i]);
+            vertices.add(Arr[i]);
         }
+        List<String> sources = new ArrayList<>();
+        List<String> targets = new ArrayList<>();
         for(int i =0; i<numberOfVertices-1;i++){
             for(int j =i+1; j< numberOfVertices; j++) {
                 double x = Math.random();
                 double y = Math.random();
-                if(x<p){defaultDigraph.insertEdge(Arr[i], Arr[j], 1);}
-                if(y<p){defaultDigraph.insertEdge(Arr[j], Arr[i], 1);}
+                if(x<p){sources.add(Arr[i]); targets.add(Arr[j]);}
+                if(y<p){sources.add(Arr[j]); targets.add(Arr[i]);}
+            }
+        }
+        defaultDigraph.insertAll(vertices, sources, targets, Collections.nCopies(sources.size(), 1));
+    }
+    /*
+     * copies the first vertices of a graph file, written by MappedCsrDigraph.write, and the edges
+     * between them into the editable graph; the algorithms and the animation need a graph they can
+     * observe and change, but only the pages of the copied vertices are read from the file. Any
+     * other file is read as an edge list, of which only the first vertices are kept as well.
+     * Returns a summary of the load.
+     */
+    private String loadGraph(ConcurrentAdjacencyMapDigraph<String, Integer> defaultDigraph, Path path)
+    {
+        MappedCsrDigraph file;
+        try {
+            if (!path.toString().endsWith(GRAPH_FILE_EXTENSION)) {
+                EdgeListImporter importer = new EdgeListImporter(defaultDigraph);
+                importer.setVertexLimit(IMPORTED_VERTICES);
+                return importer.load(path) + "\n";
+            }
+            file = MappedCsrDigraph.open(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int count = Math.min(file.numVertices(), IMPORTED_VERTICES);
+        List<String> vertices = new ArrayList<>(count);
+        for (int id = 0; id < count; id++) {
+            vertices.add(file.vertex(id).element());
+        }
+        List<String> sources = new ArrayList<>();
+        List<String> targets = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        for (int id = 0; id < count; id++) {
+            for (Edge<Integer, String> edge : file.outgoingEdges(file.vertex(id))) {
+                int target = file.vertexId(edge.vertices()[1]);
+                if (target < count) {
+                    sources.add(vertices.get(id));
+                    targets.add(vertices.get(target));
+                    weights.add(edge.element());
+                }
             }
         }
+        defaultDigraph.insertAll(vertices, sources, targets, weights);
+        return String.format("Loaded %d of %d vertices and %d of %d edges from %s\n",
+                count, file.numVertices(), sources.size(), file.numEdges(), path);
+    }
+    /* runs the algorithm in the background, so the animation starts with its first steps */
+    private void startProducer(Visualization visualization, VisualizationStepQueue steps) {
+        Thread producer = new Thread(() -> visualization.visualize(steps), "visualization-producer");
+        producer.setDaemon(true);
+        producer.start();
     }
-    private void generateGraph(Graph<String, Integer> defaultDigraph, SmartGraphPanel<String, Integer> graphView) {
+
+    private void generateGraph(ConcurrentAdjacencyMapDigraph<String, Integer> defaultDigraph,
+                               SmartGraphPanel<String, Integer> graphView) {
         randomGraph(defaultDigraph);
     }
 
     private void resetDefaultDigraph(Graph<String, Integer> defaultDigraph,
                                      SmartGraphPanel<String, Integer> graphView) {
 
-        for (Vertex<String> vertex : defaultDigraph.vertices()) {
-            graphView.getStylableVertex(vertex).setStyleClass("vertex");
-        }
+        graphView.setVertexStyleClass(defaultDigraph.vertices(), "vertex");
         graphView.update();
     }
 
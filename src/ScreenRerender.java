@@ -1,35 +1,53 @@
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import org.jgrapht.alg.connectivity.VisualizationStep;
+import org.jgrapht.alg.connectivity.VisualizationStepQueue;
 
 import graphvisualizer.containers.MenuPane;
-import graphvisualizer.graph.AdjacencyMapDigraph;
 import graphvisualizer.graph.Vertex;
 import graphvisualizer.graphview.SmartGraphPanel;
 
 public class ScreenRerender extends Thread {
-  List<VisualizationStep> vr;
+  Iterator<VisualizationStep> vr;
+  // steps still being produced by the algorithm; null if replaying a list
+  VisualizationStepQueue steps;
   SmartGraphPanel<String, Integer> graphView;
   MenuPane menu;
   Map<String, Vertex<String>> mapV;
-  AdjacencyMapDigraph<String, Integer> graph;
+  // whether the transposed graph is being displayed
+  boolean transposed = false;
 
   public ScreenRerender(List<VisualizationStep> vr, SmartGraphPanel<String, Integer> graphView,
-      Map<String, Vertex<String>> mapV, MenuPane menu, AdjacencyMapDigraph<String, Integer> graph) {
-    this.vr = vr;
+      Map<String, Vertex<String>> mapV, MenuPane menu) {
+    this.vr = vr.iterator();
     this.graphView = graphView;
     this.mapV = mapV;
     this.menu = menu;
-    this.graph = graph;
+  }
+
+  public ScreenRerender(VisualizationStepQueue steps, SmartGraphPanel<String, Integer> graphView,
+      Map<String, Vertex<String>> mapV, MenuPane menu) {
+    this.steps = steps;
+    this.graphView = graphView;
+    this.mapV = mapV;
+    this.menu = menu;
+  }
+
+  private VisualizationStep nextStep() {
+    if (steps != null) {
+      return steps.take();
+    }
+    return vr.hasNext() ? vr.next() : null;
   }
 
   public void run() {
     System.out.println("Screen update");
-    for (int i = 0; i < vr.size(); i++) {
-      VisualizationStep action = vr.get(i);
-      menu.getStatusBox().appendText(action.toString() + "\n");
+    VisualizationStep action;
+    while ((action = nextStep()) != null) {
+      menu.getStatusLog().append(action.toString() + "\n");
       if (action.phase == 1 && action.action.equals("visit")) {
         if (mapV.containsKey((action.vertex))) {
           graphView.getStylableVertex(mapV.get(action.vertex)).setStyleClass("visited-vertex" + action.group);
@@ -46,9 +64,9 @@ public class ScreenRerender extends Thread {
         }
       }
       if (action.action.equals("inverseGraph")) {
-        graph.inverseGraph();
-        graphView.autosize();
-        graphView.setAutomaticLayout(true);
+        // only the drawing is reversed; the graph is left untouched
+        transposed = !transposed;
+        graphView.setTransposedView(transposed);
         try {
           TimeUnit.MILLISECONDS.sleep(800);
         } catch (Exception e) {
@@ -64,7 +82,8 @@ public class ScreenRerender extends Thread {
         // TODO: handle exception
       }
     }
-    menu.getStatusBox().appendText("\n=== done ===\n");
+    menu.getStatusLog().append("\n=== done ===\n");
+    graphView.setTransposedView(false);
     graphView.autosize();
     graphView.setAutomaticLayout(true);
     graphView.update();
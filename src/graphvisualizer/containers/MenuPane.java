@@ -14,12 +14,17 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class MenuPane extends VBox {
+    /* lines kept in the status box */
+    private static final int STATUS_LINES = 1000;
+
     private Button randomGraphButton;
     private Button runKosarajuButton;
     private Button runTarjanButton;
     private Button strongConnectivityButton;
+    private Button collapseButton;
     private Button resetButton;
     private TextArea statusBox;
+    private StatusLog statusLog;
 
     public MenuPane() {
         setSpacing(40);
@@ -51,6 +56,10 @@ public class MenuPane extends VBox {
         runTarjanButton.getStyleClass().add("function-button");
         getChildren().add(runTarjanButton);
 
+        collapseButton = new Button("Collapse SCCs");
+        collapseButton.getStyleClass().add("function-button");
+        getChildren().add(collapseButton);
+
         resetButton = new Button("reset");
         resetButton.getStyleClass().add("reset-button");
         getChildren().add(resetButton);
@@ -64,12 +73,29 @@ public class MenuPane extends VBox {
         statusBox.getStyleClass().add("status-box");
         getChildren().add(statusBox);
         setVgrow(statusBox, Priority.ALWAYS);
+        statusLog = new StatusLog(statusBox, STATUS_LINES);
     }
 
+    /**
+     * Returns the status box; its text should be written through
+     * {@link #getStatusLog()}.
+     *
+     * @return the status box
+     */
     public TextArea getStatusBox() {
         return statusBox;
     }
 
+    /**
+     * Returns the log shown in the status box, which can be written from any
+     * thread.
+     *
+     * @return the status log
+     */
+    public StatusLog getStatusLog() {
+        return statusLog;
+    }
+
     public void setRandomGraphButtonAction(EventHandler<ActionEvent> actionEvent) {
         randomGraphButton.setOnAction(actionEvent);
     }
@@ -82,6 +108,10 @@ public class MenuPane extends VBox {
         runTarjanButton.setOnAction(actionEvent);
     }
 
+    public void setCollapseButtonAction(EventHandler<ActionEvent> actionEvent) {
+        collapseButton.setOnAction(actionEvent);
+    }
+
     public void setResetButtonAction(EventHandler<ActionEvent> actionEvent) {
         resetButton.setOnAction(actionEvent);
     }
@@ -27,6 +27,7 @@ import javafx.scene.control.CheckBox;
 import javafx.scene.control.Menu;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
+import javafx.scene.shape.Rectangle;
 import graphvisualizer.graphview.SmartGraphPanel;
 
 /**
@@ -37,7 +38,13 @@ public class SmartGraphDemoContainer extends BorderPane {
     private MenuPane menu;
 
     public SmartGraphDemoContainer(SmartGraphPanel graphView) {
-        setCenter(new ContentResizerPane(graphView));
+        ContentZoomPane zoomPane = new ContentZoomPane(new ContentResizerPane(graphView));
+        //zoomed content stays within its pane, which also bounds what the panel culls
+        Rectangle clip = new Rectangle();
+        clip.widthProperty().bind(zoomPane.widthProperty());
+        clip.heightProperty().bind(zoomPane.heightProperty());
+        zoomPane.setClip(clip);
+        setCenter(zoomPane);
         menu = new MenuPane();
         setRight(menu);
     }
@@ -0,0 +1,158 @@
+package graphvisualizer.containers;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.control.TextArea;
+
+/**
+ * Log shown in a {@link TextArea}, which can be written from any thread.
+ * <br>
+ * Written text is queued without locking and appended to the text area at most
+ * once per pulse, on the JavaFX application thread, in a single change. The
+ * text area keeps only the last lines written, so that neither appending nor
+ * laying out its text gets slower as the log grows.
+ *
+ * @see MenuPane
+ */
+public class StatusLog {
+
+    /* queued instead of a text to discard everything written before */
+    private static final String CLEAR = new String();
+
+    private final TextArea area;
+    private final int maxLines;
+
+    /*
+    WRITERS. Text queued from any thread, until the next pulse.
+     */
+    private final ConcurrentLinkedQueue<String> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+    private final Runnable flushPulse = this::flush;
+
+    /*
+    DISPLAYED LINES. Lengths of the lines in the text area, including their line
+    break, in a ring; the last one is the line still being written.
+     */
+    private final int[] lineLengths;
+    private int firstLine = 0;
+    private int lineCount = 1;
+    private final StringBuilder batch = new StringBuilder();
+
+    /**
+     * Creates the log of a text area, which should not be written otherwise.
+     *
+     * @param area text area showing the log
+     * @param maxLines number of lines kept in the text area
+     */
+    public StatusLog(TextArea area, int maxLines) {
+        if (maxLines < 1) {
+            throw new IllegalArgumentException("maxLines must be positive");
+        }
+        this.area = area;
+        this.maxLines = maxLines;
+        this.lineLengths = new int[maxLines + 1];
+
+        area.sceneProperty().addListener((observable, oldScene, newScene) -> {
+            if (oldScene != null) {
+                oldScene.removePreLayoutPulseListener(flushPulse);
+            }
+            if (newScene != null) {
+                newScene.addPreLayoutPulseListener(flushPulse);
+                Platform.requestNextPulse();
+            }
+        });
+        Scene scene = area.getScene();
+        if (scene != null) {
+            scene.addPreLayoutPulseListener(flushPulse);
+        }
+    }
+
+    /**
+     * Appends text to the log. May be called from any thread.
+     *
+     * @param text text to append, with its line breaks
+     */
+    public void append(String text) {
+        pending.add(text);
+        requestFlush();
+    }
+
+    /**
+     * Appends a line to the log. May be called from any thread.
+     *
+     * @param line line to append, without its line break
+     */
+    public void appendLine(String line) {
+        append(line + "\n");
+    }
+
+    /**
+     * Replaces the whole log with the given text. May be called from any thread.
+     *
+     * @param text text to display
+     */
+    public void setText(String text) {
+        pending.add(CLEAR);
+        pending.add(text);
+        requestFlush();
+    }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            Platform.requestNextPulse();
+        }
+    }
+
+    /*
+    Appends the queued text, dropping the oldest lines, on the application thread.
+     */
+    private void flush() {
+        flushRequested.set(false);
+
+        boolean cleared = false;
+        String text;
+        while ((text = pending.poll()) != null) {
+            if (text == CLEAR) {
+                cleared = true;
+                batch.setLength(0);
+            } else {
+                batch.append(text);
+            }
+        }
+        if (!cleared && batch.length() == 0) {
+            return;
+        }
+
+        int length = cleared ? 0 : area.getLength();
+        if (cleared) {
+            firstLine = 0;
+            lineCount = 1;
+            lineLengths[0] = 0;
+        }
+
+        //characters to drop from the start of the text area followed by the batch
+        int dropped = 0;
+        for (int i = 0; i < batch.length(); i++) {
+            lineLengths[(firstLine + lineCount - 1) % lineLengths.length]++;
+            if (batch.charAt(i) == '\n') {
+                if (lineCount == lineLengths.length) {
+                    dropped += lineLengths[firstLine];
+                    firstLine = (firstLine + 1) % lineLengths.length;
+                    lineCount--;
+                }
+                lineLengths[(firstLine + lineCount) % lineLengths.length] = 0;
+                lineCount++;
+            }
+        }
+
+        if (cleared || dropped >= length) {
+            area.setText(batch.substring(dropped - length));
+        } else {
+            area.replaceText(0, dropped, "");
+            area.appendText(batch.toString());
+        }
+        batch.setLength(0);
+    }
+}
@@ -1,6 +1,7 @@
 package graphvisualizer.graph;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * An adjacency map structure for a directed graph. A double map structure is
@@ -11,11 +12,15 @@ import java.util.*;
  * similar performance to an adjacency matrix where the
  * {@link #getEdge(Vertex u, Vertex v)} method can achieve O(1) by performing
  * lookup on the first and second map respectively.
+ * <p>
+ * Every insertion and removal is reported to the registered
+ * {@link GraphChangeListener}s, so that views can follow the graph without
+ * rescanning it.
  *
  * @param <V> Vertex type
  * @param <E> Edge type
  */
-public class AdjacencyMapDigraph<V, E> implements Graph<V, E> {
+public class AdjacencyMapDigraph<V, E> implements ObservableGraph<V, E> {
     /**
      * Concrete implementation of {@link Vertex}. A {@link DVertex} object stores a
      * {@link V} element and its edges. Edges are implemented as
@@ -27,9 +32,14 @@ public class AdjacencyMapDigraph<V, E> implements Graph<V, E> {
         private Map<Vertex<V>, Edge<E, V>> outgoingEdges, incomingEdges;
 
         public DVertex(V element) {
+            this(element, new LinkedHashMap<>(), new LinkedHashMap<>());
+        }
+
+        private DVertex(V element, Map<Vertex<V>, Edge<E, V>> outgoingEdges,
+                Map<Vertex<V>, Edge<E, V>> incomingEdges) {
             this.element = element;
-            outgoingEdges = new LinkedHashMap<>();
-            incomingEdges = new LinkedHashMap<>();
+            this.outgoingEdges = outgoingEdges;
+            this.incomingEdges = incomingEdges;
         }
 
         @Override
@@ -120,6 +130,7 @@ public class AdjacencyMapDigraph<V, E> implements Graph<V, E> {
 
     private Map<V, Vertex<V>> vertices;
     private Set<Edge<E, V>> edges;
+    private final List<GraphChangeListener<V, E>> listeners = new CopyOnWriteArrayList<>();
 
     /*
      * LinkedHashMap is used to provide a map interface and maintain the insertion
@@ -134,6 +145,29 @@ public class AdjacencyMapDigraph<V, E> implements Graph<V, E> {
     public synchronized void clear() {
         vertices.clear();
         edges.clear();
+        for (GraphChangeListener<V, E> listener : listeners) {
+            listener.graphCleared();
+        }
+    }
+
+    /**
+     * Copies the graph into an immutable {@link CsrDigraph}, e.g., to run
+     * algorithms on a compact representation while the graph keeps changing.
+     *
+     * @return the snapshot
+     */
+    public synchronized CsrDigraph<V, E> snapshot() {
+        return CsrDigraph.of(this);
+    }
+
+    @Override
+    public void addGraphChangeListener(GraphChangeListener<V, E> listener) {
+        listeners.add(Objects.requireNonNull(listener));
+    }
+
+    @Override
+    public void removeGraphChangeListener(GraphChangeListener<V, E> listener) {
+        listeners.remove(listener);
     }
 
     @Override
@@ -196,6 +230,9 @@ public class AdjacencyMapDigraph<V, E> implements Graph<V, E> {
         } else {
             DVertex vertex = new DVertex(element);
             vertices.put(element, vertex);
+            for (GraphChangeListener<V, E> listener : listeners) {
+                listener.vertexInserted(vertex);
+            }
             return vertex;
         }
     }
@@ -216,6 +253,9 @@ public class AdjacencyMapDigraph<V, E> implements Graph<V, E> {
             edges.add(edge);
             startVertex.getOutgoingEdges().put(endVertex, edge);
             endVertex.getIncomingEdges().put(startVertex, edge);
+            for (GraphChangeListener<V, E> listener : listeners) {
+                listener.edgeInserted(edge);
+            }
             return edge;
         } else {
             throw new InvalidEdgeException("Edge from u to v exists.");
@@ -233,12 +273,144 @@ public class AdjacencyMapDigraph<V, E> implements Graph<V, E> {
             edges.add(edge);
             startVertex.getOutgoingEdges().put(endVertex, edge);
             endVertex.getIncomingEdges().put(startVertex, edge);
+            for (GraphChangeListener<V, E> listener : listeners) {
+                listener.edgeInserted(edge);
+            }
             return edge;
         } else {
             throw new InvalidEdgeException("Edge from u to v exists.");
         }
     }
 
+    /**
+     * Inserts many vertices and edges at once, much faster than one by one.
+     * Edge <code>i</code> goes from the vertex storing
+     * <code>edgeSources.get(i)</code> to the one storing
+     * <code>edgeTargets.get(i)</code>; endpoints may be existing vertices or
+     * ones inserted by the same call.
+     * <p>
+     * Everything is validated first and the maps of the new vertices are sized
+     * from the degree counts, so none of them is rehashed while loading. If any vertex or edge is
+     * invalid, an exception is thrown and the graph is left unchanged;
+     * otherwise the listeners are notified once, through
+     * {@link GraphChangeListener#bulkInserted}.
+     *
+     * @param vertexElements elements of the new vertices
+     * @param edgeSources    elements of the sources of the new edges
+     * @param edgeTargets    elements of the targets of the new edges
+     * @param edgeElements   elements of the new edges
+     * @throws InvalidVertexException if a vertex exists already or an endpoint
+     *                                does not
+     * @throws InvalidEdgeException   if an edge exists already or the lists of
+     *                                edges differ in length
+     */
+    public synchronized void insertAll(Collection<? extends V> vertexElements, List<? extends V> edgeSources,
+            List<? extends V> edgeTargets, List<? extends E> edgeElements)
+            throws InvalidVertexException, InvalidEdgeException {
+        int m = edgeSources.size();
+        if (edgeTargets.size() != m || edgeElements.size() != m) {
+            throw new InvalidEdgeException("Edge lists differ in length.");
+        }
+
+        //touched vertices are numbered densely: the new ones first, in order, then the
+        //existing endpoints as they are found
+        int added = vertexElements.size();
+        Map<V, Integer> ids = new HashMap<>(capacity(added + Math.min(m, vertices.size())));
+        List<DVertex> touched = new ArrayList<>(added);
+        for (V element : vertexElements) {
+            if (vertices.containsKey(element) || ids.putIfAbsent(element, touched.size()) != null) {
+                throw new InvalidVertexException("A vertex with this element already exists.");
+            }
+            touched.add(new DVertex(element, null, null));
+        }
+
+        //endpoints and degree counts of the new edges
+        int[] sources = new int[m];
+        int[] targets = new int[m];
+        int[] outDegrees = new int[added + 16];
+        int[] inDegrees = new int[added + 16];
+        for (int i = 0; i < m; i++) {
+            sources[i] = resolve(edgeSources.get(i), ids, touched);
+            targets[i] = resolve(edgeTargets.get(i), ids, touched);
+            if (touched.size() > outDegrees.length) {
+                outDegrees = Arrays.copyOf(outDegrees, 2 * touched.size());
+                inDegrees = Arrays.copyOf(inDegrees, 2 * touched.size());
+            }
+            outDegrees[sources[i]]++;
+            inDegrees[targets[i]]++;
+        }
+
+        //adjacency maps of the new edges, sized from the degree counts; they are the
+        //maps of the new vertices, and are only merged into those of the existing
+        //ones once all edges are valid, since views of them may have been handed out
+        int k = touched.size();
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Map<Vertex<V>, Edge<E, V>>[] outgoing = new Map[k];
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Map<Vertex<V>, Edge<E, V>>[] incoming = new Map[k];
+        for (int id = 0; id < k; id++) {
+            outgoing[id] = new LinkedHashMap<>(capacity(outDegrees[id]));
+            incoming[id] = new LinkedHashMap<>(capacity(inDegrees[id]));
+            if (id < added) {
+                DVertex vertex = touched.get(id);
+                vertex.outgoingEdges = outgoing[id];
+                vertex.incomingEdges = incoming[id];
+            }
+        }
+
+        List<Edge<E, V>> addedEdges = new ArrayList<>(m);
+        for (int i = 0; i < m; i++) {
+            DVertex startVertex = touched.get(sources[i]);
+            DVertex endVertex = touched.get(targets[i]);
+            DEdge edge = new DEdge(startVertex, endVertex, edgeElements.get(i));
+            boolean existing = sources[i] >= added && startVertex.outgoingEdges.containsKey(endVertex);
+            if (existing || outgoing[sources[i]].putIfAbsent(endVertex, edge) != null) {
+                throw new InvalidEdgeException("Edge from u to v exists.");
+            }
+            incoming[targets[i]].put(startVertex, edge);
+            addedEdges.add(edge);
+        }
+
+        //publish, into the same collections, so that views handed out before see the
+        //new vertices and edges
+        for (int id = 0; id < k; id++) {
+            DVertex vertex = touched.get(id);
+            if (id < added) {
+                vertices.put(vertex.element, vertex);
+            } else {
+                vertex.outgoingEdges.putAll(outgoing[id]);
+                vertex.incomingEdges.putAll(incoming[id]);
+            }
+        }
+        edges.addAll(addedEdges);
+
+        List<Vertex<V>> insertedVertices = new ArrayList<>(touched.subList(0, added));
+        for (GraphChangeListener<V, E> listener : listeners) {
+            listener.bulkInserted(insertedVertices, addedEdges);
+        }
+    }
+
+    /* dense number of the vertex storing element, numbering it if needed */
+    @SuppressWarnings("unchecked")
+    private int resolve(V element, Map<V, Integer> ids, List<DVertex> touched) throws InvalidVertexException {
+        Integer id = ids.get(element);
+        if (id == null) {
+            DVertex vertex = (DVertex) vertices.get(element);
+            if (vertex == null) {
+                throw new InvalidVertexException("Vertex does not belong to this graph.");
+            }
+            id = touched.size();
+            ids.put(element, id);
+            touched.add(vertex);
+        }
+        return id;
+    }
+
+    /* initial capacity of a hash map holding n entries without rehashing */
+    private static int capacity(int n) {
+        return (int) (n / 0.75f) + 1;
+    }
+
     @Override
     public synchronized V removeVertex(Vertex<V> v) throws InvalidVertexException {
         DVertex vertex = validateVertex(v);
@@ -253,6 +425,9 @@ public class AdjacencyMapDigraph<V, E> implements Graph<V, E> {
 
         V element = v.element();
         vertices.remove(v.element());
+        for (GraphChangeListener<V, E> listener : listeners) {
+            listener.vertexRemoved(vertex);
+        }
         return element;
     }
 
@@ -267,6 +442,9 @@ public class AdjacencyMapDigraph<V, E> implements Graph<V, E> {
         endVertex.getIncomingEdges().remove(startVertex);
         E element = edge.element();
         edges.remove(edge);
+        for (GraphChangeListener<V, E> listener : listeners) {
+            listener.edgeRemoved(edge);
+        }
         return element;
     }
 
@@ -0,0 +1,414 @@
+package graphvisualizer.graph;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A variant of {@link AdjacencyMapDigraph} whose read methods take no lock,
+ * so that rendering and algorithm threads can traverse the graph while it is
+ * changed.
+ * <p>
+ * Writers are serialized by the monitor of the graph, as in
+ * {@link AdjacencyMapDigraph}, and listeners are notified while it is held.
+ * Readers never lock:
+ * <ul>
+ * <li>vertices and edges are kept in concurrent maps, ordered by insertion, so
+ * <code>vertices()</code> and <code>edges()</code> are live views that never
+ * throw {@link ConcurrentModificationException};</li>
+ * <li>the outgoing and incoming edges of a vertex are immutable maps, replaced
+ * by a modified copy on every change, so <code>outgoingEdges(v)</code> and
+ * <code>incomingEdges(v)</code> return a consistent snapshot.</li>
+ * </ul>
+ * A reader may therefore see a change to one vertex before a change to
+ * another; code that needs the whole graph at one instant should hold the
+ * monitor, or use {@link #snapshot()}.
+ *
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
+public class ConcurrentAdjacencyMapDigraph<V, E> implements ObservableGraph<V, E> {
+    /**
+     * Concrete implementation of {@link Vertex}. The edges are stored in
+     * immutable {@link LinkedHashMap}s, which are copied when they change.
+     */
+    private class CVertex implements Vertex<V> {
+        private final V element;
+        private final long sequence;
+        private volatile Map<Vertex<V>, Edge<E, V>> outgoingEdges = Collections.emptyMap();
+        private volatile Map<Vertex<V>, Edge<E, V>> incomingEdges = Collections.emptyMap();
+
+        CVertex(V element, long sequence) {
+            this.element = element;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public V element() {
+            return element;
+        }
+
+        @Override
+        public String toString() {
+            return "Vertex{" + element + "}";
+        }
+    }
+
+    /**
+     * Concrete implementation of {@link Edge}.
+     */
+    private class CEdge implements Edge<E, V> {
+        private final E element;
+        private final Vertex<V>[] endVertices;
+        private final long sequence;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        CEdge(Vertex<V> u, Vertex<V> v, E element, long sequence) {
+            this.element = element;
+            this.endVertices = (Vertex<V>[]) new Vertex[] { u, v };
+            this.sequence = sequence;
+        }
+
+        @Override
+        public E element() {
+            return element;
+        }
+
+        @Override
+        public Vertex<V>[] vertices() {
+            return endVertices;
+        }
+
+        @Override
+        public String toString() {
+            return "Edge from " + endVertices[0] + " to " + endVertices[1] + " with weight of " + element;
+        }
+    }
+
+    private final Map<V, CVertex> vertexByElement = new ConcurrentHashMap<>();
+    /* vertices and edges by insertion sequence, for iteration in insertion order */
+    private final ConcurrentSkipListMap<Long, CVertex> vertices = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Long, CEdge> edges = new ConcurrentSkipListMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile int numVertices = 0;
+    private volatile int numEdges = 0;
+    private final List<GraphChangeListener<V, E>> listeners = new CopyOnWriteArrayList<>();
+
+    public synchronized void clear() {
+        vertexByElement.clear();
+        vertices.clear();
+        edges.clear();
+        numVertices = 0;
+        numEdges = 0;
+        for (GraphChangeListener<V, E> listener : listeners) {
+            listener.graphCleared();
+        }
+    }
+
+    /**
+     * Copies the graph into an immutable {@link CsrDigraph}. Writers wait for
+     * the copy; readers do not.
+     *
+     * @return the snapshot
+     */
+    public synchronized CsrDigraph<V, E> snapshot() {
+        return CsrDigraph.of(this);
+    }
+
+    @Override
+    public void addGraphChangeListener(GraphChangeListener<V, E> listener) {
+        listeners.add(Objects.requireNonNull(listener));
+    }
+
+    @Override
+    public void removeGraphChangeListener(GraphChangeListener<V, E> listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public int numVertices() {
+        return numVertices;
+    }
+
+    @Override
+    public int numEdges() {
+        return numEdges;
+    }
+
+    @Override
+    public Collection<Vertex<V>> vertices() {
+        return Collections.unmodifiableCollection(vertices.values());
+    }
+
+    @Override
+    public Collection<Edge<E, V>> edges() {
+        return Collections.unmodifiableCollection(edges.values());
+    }
+
+    @Override
+    public Collection<Edge<E, V>> incomingEdges(Vertex<V> v) throws InvalidVertexException {
+        return validateVertex(v).incomingEdges.values();
+    }
+
+    @Override
+    public Collection<Edge<E, V>> outgoingEdges(Vertex<V> v) throws InvalidVertexException {
+        return validateVertex(v).outgoingEdges.values();
+    }
+
+    @Override
+    public Vertex<V> opposite(Vertex<V> v, Edge<E, V> e) throws InvalidVertexException, InvalidEdgeException {
+        CVertex vertex = validateVertex(v);
+        CEdge edge = validateEdge(e);
+
+        if (edge.endVertices[0] == vertex) {
+            return edge.endVertices[1];
+        } else if (edge.endVertices[1] == vertex) {
+            return edge.endVertices[0];
+        } else {
+            throw new InvalidEdgeException("v is not incident to this edge.");
+        }
+    }
+
+    @Override
+    public Edge<E, V> getEdge(Vertex<V> u, Vertex<V> v) throws InvalidVertexException {
+        return validateVertex(u).outgoingEdges.get(v);
+    }
+
+    @Override
+    public synchronized Vertex<V> insertVertex(V element) throws InvalidVertexException {
+        if (vertexByElement.containsKey(element)) {
+            throw new InvalidVertexException("A vertex with this element already exists.");
+        }
+
+        CVertex vertex = new CVertex(element, sequence.getAndIncrement());
+        vertexByElement.put(element, vertex);
+        vertices.put(vertex.sequence, vertex);
+        numVertices++;
+        for (GraphChangeListener<V, E> listener : listeners) {
+            listener.vertexInserted(vertex);
+        }
+        return vertex;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Copies the adjacencies of both endpoints, so building a vertex of degree
+     * d one edge at a time costs O(d&sup2;); use
+     * {@link #insertAll(Collection, List, List, List)} to insert many edges.
+     */
+    @Override
+    public synchronized Edge<E, V> insertEdge(Vertex<V> u, Vertex<V> v, E element)
+            throws InvalidVertexException, InvalidEdgeException {
+        return addEdge(validateVertex(u), validateVertex(v), element);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Copies the adjacencies of both endpoints, as
+     * {@link #insertEdge(Vertex, Vertex, Object)}.
+     */
+    @Override
+    public synchronized Edge<E, V> insertEdge(V uElement, V vElement, E eElement)
+            throws InvalidVertexException, InvalidEdgeException {
+        return addEdge(validateVertex(vertexByElement.get(uElement)), validateVertex(vertexByElement.get(vElement)),
+                eElement);
+    }
+
+    private Edge<E, V> addEdge(CVertex startVertex, CVertex endVertex, E element) throws InvalidEdgeException {
+        if (startVertex.outgoingEdges.containsKey(endVertex)) {
+            throw new InvalidEdgeException("Edge from u to v exists.");
+        }
+
+        CEdge edge = new CEdge(startVertex, endVertex, element, sequence.getAndIncrement());
+        startVertex.outgoingEdges = copyWith(startVertex.outgoingEdges, endVertex, edge);
+        endVertex.incomingEdges = copyWith(endVertex.incomingEdges, startVertex, edge);
+        edges.put(edge.sequence, edge);
+        numEdges++;
+        for (GraphChangeListener<V, E> listener : listeners) {
+            listener.edgeInserted(edge);
+        }
+        return edge;
+    }
+
+    /**
+     * Inserts many vertices and edges at once, copying the adjacencies of each
+     * touched vertex once instead of once per edge.
+     *
+     * @param vertexElements elements of the new vertices
+     * @param edgeSources    elements of the sources of the new edges
+     * @param edgeTargets    elements of the targets of the new edges
+     * @param edgeElements   elements of the new edges
+     * @throws InvalidVertexException if a vertex exists already or an endpoint
+     *                                does not
+     * @throws InvalidEdgeException   if an edge exists already or the lists of
+     *                                edges differ in length
+     * @see AdjacencyMapDigraph#insertAll
+     */
+    public synchronized void insertAll(Collection<? extends V> vertexElements, List<? extends V> edgeSources,
+            List<? extends V> edgeTargets, List<? extends E> edgeElements)
+            throws InvalidVertexException, InvalidEdgeException {
+        int m = edgeSources.size();
+        if (edgeTargets.size() != m || edgeElements.size() != m) {
+            throw new InvalidEdgeException("Edge lists differ in length.");
+        }
+
+        Map<V, CVertex> addedVertices = new LinkedHashMap<>((int) (vertexElements.size() / 0.75f) + 1);
+        for (V element : vertexElements) {
+            if (vertexByElement.containsKey(element) || addedVertices.containsKey(element)) {
+                throw new InvalidVertexException("A vertex with this element already exists.");
+            }
+            addedVertices.put(element, new CVertex(element, sequence.getAndIncrement()));
+        }
+
+        //modified copies of the adjacencies, published only once all edges are valid
+        Map<CVertex, Map<Vertex<V>, Edge<E, V>>> outgoing = new HashMap<>();
+        Map<CVertex, Map<Vertex<V>, Edge<E, V>>> incoming = new HashMap<>();
+        List<CEdge> addedEdges = new ArrayList<>(m);
+        for (int i = 0; i < m; i++) {
+            CVertex startVertex = resolve(edgeSources.get(i), addedVertices);
+            CVertex endVertex = resolve(edgeTargets.get(i), addedVertices);
+            CEdge edge = new CEdge(startVertex, endVertex, edgeElements.get(i), sequence.getAndIncrement());
+            if (outgoing.computeIfAbsent(startVertex, k -> new LinkedHashMap<>(k.outgoingEdges))
+                    .putIfAbsent(endVertex, edge) != null) {
+                throw new InvalidEdgeException("Edge from u to v exists.");
+            }
+            incoming.computeIfAbsent(endVertex, k -> new LinkedHashMap<>(k.incomingEdges)).put(startVertex, edge);
+            addedEdges.add(edge);
+        }
+
+        //publish
+        for (CVertex vertex : addedVertices.values()) {
+            vertexByElement.put(vertex.element, vertex);
+            vertices.put(vertex.sequence, vertex);
+        }
+        for (Map.Entry<CVertex, Map<Vertex<V>, Edge<E, V>>> entry : outgoing.entrySet()) {
+            entry.getKey().outgoingEdges = Collections.unmodifiableMap(entry.getValue());
+        }
+        for (Map.Entry<CVertex, Map<Vertex<V>, Edge<E, V>>> entry : incoming.entrySet()) {
+            entry.getKey().incomingEdges = Collections.unmodifiableMap(entry.getValue());
+        }
+        for (CEdge edge : addedEdges) {
+            edges.put(edge.sequence, edge);
+        }
+        numVertices += addedVertices.size();
+        numEdges += m;
+
+        List<Vertex<V>> insertedVertices = new ArrayList<>(addedVertices.values());
+        List<Edge<E, V>> insertedEdges = new ArrayList<>(addedEdges);
+        for (GraphChangeListener<V, E> listener : listeners) {
+            listener.bulkInserted(insertedVertices, insertedEdges);
+        }
+    }
+
+    private CVertex resolve(V element, Map<V, CVertex> addedVertices) throws InvalidVertexException {
+        CVertex vertex = addedVertices.get(element);
+        if (vertex == null) {
+            vertex = vertexByElement.get(element);
+        }
+        if (vertex == null) {
+            throw new InvalidVertexException("Vertex does not belong to this graph.");
+        }
+        return vertex;
+    }
+
+    @Override
+    public synchronized V removeVertex(Vertex<V> v) throws InvalidVertexException {
+        CVertex vertex = validateVertex(v);
+
+        //a self-loop is both incoming and outgoing
+        Set<Edge<E, V>> removedEdges = new LinkedHashSet<>(vertex.incomingEdges.values());
+        removedEdges.addAll(vertex.outgoingEdges.values());
+        for (Edge<E, V> edge : removedEdges) {
+            removeEdge(edge);
+        }
+
+        vertexByElement.remove(vertex.element);
+        vertices.remove(vertex.sequence);
+        numVertices--;
+        for (GraphChangeListener<V, E> listener : listeners) {
+            listener.vertexRemoved(vertex);
+        }
+        return vertex.element;
+    }
+
+    @Override
+    public synchronized E removeEdge(Edge<E, V> e) throws InvalidEdgeException {
+        CEdge edge = validateEdge(e);
+        CVertex startVertex = validateVertex(edge.endVertices[0]);
+        CVertex endVertex = validateVertex(edge.endVertices[1]);
+
+        startVertex.outgoingEdges = copyWithout(startVertex.outgoingEdges, endVertex);
+        endVertex.incomingEdges = copyWithout(endVertex.incomingEdges, startVertex);
+        edges.remove(edge.sequence);
+        numEdges--;
+        for (GraphChangeListener<V, E> listener : listeners) {
+            listener.edgeRemoved(edge);
+        }
+        return edge.element;
+    }
+
+    private Map<Vertex<V>, Edge<E, V>> copyWith(Map<Vertex<V>, Edge<E, V>> map, Vertex<V> key, Edge<E, V> edge) {
+        Map<Vertex<V>, Edge<E, V>> copy = new LinkedHashMap<>(map);
+        copy.put(key, edge);
+        return Collections.unmodifiableMap(copy);
+    }
+
+    private Map<Vertex<V>, Edge<E, V>> copyWithout(Map<Vertex<V>, Edge<E, V>> map, Vertex<V> key) {
+        if (map.size() == 1) {
+            return Collections.emptyMap();
+        }
+        Map<Vertex<V>, Edge<E, V>> copy = new LinkedHashMap<>(map);
+        copy.remove(key);
+        return Collections.unmodifiableMap(copy);
+    }
+
+    /* validate that this vertex belongs to the graph */
+    private CVertex validateVertex(Vertex<V> v) throws InvalidVertexException {
+        if (v == null)
+            throw new InvalidVertexException("Null vertex.");
+        if (!(v instanceof ConcurrentAdjacencyMapDigraph.CVertex))
+            throw new InvalidVertexException("Not a vertex.");
+
+        @SuppressWarnings("unchecked")
+        CVertex vertex = (CVertex) v;
+        if (vertexByElement.get(vertex.element) != vertex) {
+            throw new InvalidVertexException("Vertex does not belong to this graph.");
+        }
+        return vertex;
+    }
+
+    /* validate that this edge belongs to the graph */
+    private CEdge validateEdge(Edge<E, V> e) throws InvalidEdgeException {
+        if (e == null)
+            throw new InvalidEdgeException("Null edge.");
+        if (!(e instanceof ConcurrentAdjacencyMapDigraph.CEdge))
+            throw new InvalidEdgeException("Not an edge.");
+
+        @SuppressWarnings("unchecked")
+        CEdge edge = (CEdge) e;
+        if (edges.get(edge.sequence) != edge) {
+            throw new InvalidEdgeException("Edge does not belong to this graph.");
+        }
+        return edge;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(
+                String.format("[Graph with %d vertices and %d edges]\n", numVertices(), numEdges()));
+
+        sb.append("--- Vertices: \n");
+        for (Vertex<V> v : vertices.values()) {
+            sb.append("\t").append(v.toString()).append("\n");
+        }
+        sb.append("\n--- Edges: \n");
+        for (Edge<E, V> e : edges.values()) {
+            sb.append("\t").append(e.toString()).append("\n");
+        }
+        return sb.append("\n").toString();
+    }
+}
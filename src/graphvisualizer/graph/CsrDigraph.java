@@ -0,0 +1,421 @@
+package graphvisualizer.graph;
+
+import java.util.*;
+
+/**
+ * An immutable directed graph in compressed sparse row form, e.g., a snapshot
+ * of an {@link AdjacencyMapDigraph} taken with
+ * {@link AdjacencyMapDigraph#snapshot()}.
+ * <p>
+ * Vertices are numbered from 0 to <code>numVertices() - 1</code> and edges
+ * from 0 to <code>numEdges() - 1</code>. The outgoing edges of vertex
+ * <code>v</code> are the edges <code>outOffsets[v]</code> to
+ * <code>outOffsets[v + 1] - 1</code>, sorted by target, whose targets are
+ * stored in <code>outTargets</code>. The incoming edges are stored the same
+ * way, sorted by source, with the number of each edge in
+ * <code>inEdges</code>. Apart from the elements, a graph with n vertices and m
+ * edges takes 2n + 4m ints, so algorithms can traverse it without chasing
+ * pointers; the primitive accessors expose the arrays themselves.
+ * <p>
+ * The {@link Vertex} and {@link Edge} objects of the read-side of
+ * {@link Graph} are views over the numbering: vertices are created once and
+ * compare by identity, edges are created whenever requested and compare by
+ * number. All mutating methods throw {@link UnsupportedOperationException}.
+ *
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
+public final class CsrDigraph<V, E> implements Graph<V, E> {
+    private final CVertex<V>[] vertices;
+    private final Map<V, Integer> ids;
+
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final int[] sources;
+    private final Object[] edgeElements;
+
+    private final int[] inOffsets;
+    private final int[] inSources;
+    private final int[] inEdges;
+
+    /**
+     * A vertex of the snapshot, identified by its number.
+     */
+    private static final class CVertex<V> implements Vertex<V> {
+        private final int id;
+        private final V element;
+
+        CVertex(int id, V element) {
+            this.id = id;
+            this.element = element;
+        }
+
+        @Override
+        public V element() {
+            return element;
+        }
+
+        @Override
+        public String toString() {
+            return "Vertex{" + element + "}";
+        }
+    }
+
+    /**
+     * An edge of the snapshot, identified by its number.
+     */
+    private final class CEdge implements Edge<E, V> {
+        private final int id;
+
+        CEdge(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public E element() {
+            return edgeElement(id);
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public Vertex<V>[] vertices() {
+            return (Vertex<V>[]) new Vertex[] { vertices[sources[id]], vertices[outTargets[id]] };
+        }
+
+        @Override
+        public String toString() {
+            return "Edge from " + vertices[sources[id]] + " to " + vertices[outTargets[id]] + " with weight of "
+                    + element();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (o == null || getClass() != o.getClass())
+                return false;
+            CsrDigraph<?, ?>.CEdge edge = (CsrDigraph<?, ?>.CEdge) o;
+            return id == edge.id && owner() == edge.owner();
+        }
+
+        @Override
+        public int hashCode() {
+            return id;
+        }
+
+        private CsrDigraph<V, E> owner() {
+            return CsrDigraph.this;
+        }
+    }
+
+    private CsrDigraph(List<V> elements, int[] edgeSources, int[] edgeTargets, Object[] elementsOfEdges) {
+        int n = elements.size();
+        int m = edgeSources.length;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        CVertex<V>[] vertexArray = (CVertex<V>[]) new CVertex[n];
+        this.vertices = vertexArray;
+        this.ids = new HashMap<>(n * 4 / 3 + 1);
+        for (int i = 0; i < n; i++) {
+            vertices[i] = new CVertex<>(i, elements.get(i));
+            ids.put(elements.get(i), i);
+        }
+
+        /* counting sort by target, then stably by source: rows come out sorted by target */
+        int[] byTarget = countingSort(edgeTargets, identity(m), n);
+        int[] bySource = countingSort(edgeSources, byTarget, n);
+
+        this.outOffsets = offsets(edgeSources, n);
+        this.outTargets = new int[m];
+        this.sources = new int[m];
+        this.edgeElements = new Object[m];
+        for (int k = 0; k < m; k++) {
+            int e = bySource[k];
+            outTargets[k] = edgeTargets[e];
+            sources[k] = edgeSources[e];
+            edgeElements[k] = elementsOfEdges[e];
+        }
+
+        /* edges are now numbered by source, so a stable sort by target keeps sources in order */
+        this.inEdges = countingSort(outTargets, identity(m), n);
+        this.inOffsets = offsets(outTargets, n);
+        this.inSources = new int[m];
+        for (int k = 0; k < m; k++) {
+            inSources[k] = sources[inEdges[k]];
+        }
+    }
+
+    /**
+     * Copies a graph. The graph must not change meanwhile; use
+     * {@link AdjacencyMapDigraph#snapshot()} to hold its lock.
+     *
+     * @param graph graph to copy
+     * @param <V>   Vertex type
+     * @param <E>   Edge type
+     * @return the snapshot
+     */
+    public static <V, E> CsrDigraph<V, E> of(Graph<V, E> graph) {
+        List<V> elements = new ArrayList<>(graph.numVertices());
+        Map<Vertex<V>, Integer> ids = new HashMap<>(graph.numVertices() * 4 / 3 + 1);
+        for (Vertex<V> v : graph.vertices()) {
+            ids.put(v, elements.size());
+            elements.add(v.element());
+        }
+
+        int m = graph.numEdges();
+        int[] edgeSources = new int[m];
+        int[] edgeTargets = new int[m];
+        Object[] elementsOfEdges = new Object[m];
+        int k = 0;
+        for (Edge<E, V> e : graph.edges()) {
+            Vertex<V>[] ends = e.vertices();
+            edgeSources[k] = ids.get(ends[0]);
+            edgeTargets[k] = ids.get(ends[1]);
+            elementsOfEdges[k] = e.element();
+            k++;
+        }
+
+        return new CsrDigraph<>(elements, edgeSources, edgeTargets, elementsOfEdges);
+    }
+
+    /* the permutation that sorts 'order' by key, stable */
+    private static int[] countingSort(int[] keys, int[] order, int n) {
+        int[] start = offsets(keys, n);
+        int[] sorted = new int[order.length];
+        for (int e : order) {
+            sorted[start[keys[e]]++] = e;
+        }
+        return sorted;
+    }
+
+    private static int[] offsets(int[] keys, int n) {
+        int[] offsets = new int[n + 1];
+        for (int key : keys) {
+            offsets[key + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        return offsets;
+    }
+
+    private static int[] identity(int m) {
+        int[] identity = new int[m];
+        for (int k = 0; k < m; k++) {
+            identity[k] = k;
+        }
+        return identity;
+    }
+
+    /* validate that this vertex belongs to the graph */
+    private int validateVertex(Vertex<V> v) throws InvalidVertexException {
+        if (v == null)
+            throw new InvalidVertexException("Null vertex.");
+        if (!(v instanceof CVertex))
+            throw new InvalidVertexException("Not a vertex.");
+
+        CVertex<?> vertex = (CVertex<?>) v;
+        if (vertex.id >= vertices.length || vertices[vertex.id] != vertex) {
+            throw new InvalidVertexException("Vertex does not belong to this graph.");
+        }
+        return vertex.id;
+    }
+
+    /* validate that this edge belongs to the graph */
+    private int validateEdge(Edge<E, V> e) throws InvalidEdgeException {
+        if (e == null)
+            throw new InvalidEdgeException("Null edge.");
+        if (!(e instanceof CsrDigraph.CEdge) || ((CsrDigraph<?, ?>.CEdge) e).owner() != this)
+            throw new InvalidEdgeException("Edge does not belong to this graph.");
+        return ((CsrDigraph<?, ?>.CEdge) e).id;
+    }
+
+    /**
+     * Returns the number of a vertex.
+     *
+     * @param v vertex of this graph
+     * @return its number
+     */
+    public int vertexId(Vertex<V> v) throws InvalidVertexException {
+        return validateVertex(v);
+    }
+
+    /**
+     * Returns the number of the vertex storing an element.
+     *
+     * @param element vertex element
+     * @return its number; -1 if none
+     */
+    public int vertexId(V element) {
+        Integer id = ids.get(element);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the vertex with a number.
+     *
+     * @param id vertex number
+     * @return the vertex
+     */
+    public Vertex<V> vertex(int id) {
+        return vertices[id];
+    }
+
+    /**
+     * Returns the edge with a number.
+     *
+     * @param id edge number
+     * @return the edge
+     */
+    public Edge<E, V> edge(int id) {
+        Objects.checkIndex(id, outTargets.length);
+        return new CEdge(id);
+    }
+
+    /**
+     * Returns the element of the edge with a number.
+     *
+     * @param id edge number
+     * @return its element
+     */
+    @SuppressWarnings("unchecked")
+    public E edgeElement(int id) {
+        return (E) edgeElements[id];
+    }
+
+    /* primitive accessors; the arrays are shared and must not be modified */
+    public int[] outOffsets() {
+        return outOffsets;
+    }
+
+    public int[] outTargets() {
+        return outTargets;
+    }
+
+    public int[] edgeSources() {
+        return sources;
+    }
+
+    public int[] inOffsets() {
+        return inOffsets;
+    }
+
+    public int[] inSources() {
+        return inSources;
+    }
+
+    public int[] inEdges() {
+        return inEdges;
+    }
+
+    @Override
+    public int numVertices() {
+        return vertices.length;
+    }
+
+    @Override
+    public int numEdges() {
+        return outTargets.length;
+    }
+
+    @Override
+    public Collection<Vertex<V>> vertices() {
+        return Collections.unmodifiableList(Arrays.asList(vertices));
+    }
+
+    @Override
+    public Collection<Edge<E, V>> edges() {
+        return edgeRange(0, outTargets.length, null);
+    }
+
+    @Override
+    public Collection<Edge<E, V>> incomingEdges(Vertex<V> v) throws InvalidVertexException {
+        int id = validateVertex(v);
+        return edgeRange(inOffsets[id], inOffsets[id + 1], inEdges);
+    }
+
+    @Override
+    public Collection<Edge<E, V>> outgoingEdges(Vertex<V> v) throws InvalidVertexException {
+        int id = validateVertex(v);
+        return edgeRange(outOffsets[id], outOffsets[id + 1], null);
+    }
+
+    /* edges from..to-1, or the edges listed there in 'edgeIds' */
+    private List<Edge<E, V>> edgeRange(int from, int to, int[] edgeIds) {
+        return new AbstractList<Edge<E, V>>() {
+            @Override
+            public Edge<E, V> get(int index) {
+                Objects.checkIndex(index, to - from);
+                return new CEdge(edgeIds == null ? from + index : edgeIds[from + index]);
+            }
+
+            @Override
+            public int size() {
+                return to - from;
+            }
+        };
+    }
+
+    @Override
+    public Vertex<V> opposite(Vertex<V> v, Edge<E, V> e) throws InvalidVertexException, InvalidEdgeException {
+        int id = validateVertex(v);
+        int edge = validateEdge(e);
+
+        if (sources[edge] == id) {
+            return vertices[outTargets[edge]];
+        } else if (outTargets[edge] == id) {
+            return vertices[sources[edge]];
+        } else {
+            throw new InvalidEdgeException("v is not incident to this edge.");
+        }
+    }
+
+    @Override
+    public Edge<E, V> getEdge(Vertex<V> u, Vertex<V> v) throws InvalidVertexException {
+        int source = validateVertex(u);
+        int target = validateVertex(v);
+        int k = Arrays.binarySearch(outTargets, outOffsets[source], outOffsets[source + 1], target);
+        return k >= 0 ? new CEdge(k) : null;
+    }
+
+    @Override
+    public Vertex<V> insertVertex(V element) {
+        throw new UnsupportedOperationException("Snapshots are immutable.");
+    }
+
+    @Override
+    public Edge<E, V> insertEdge(Vertex<V> u, Vertex<V> v, E element) {
+        throw new UnsupportedOperationException("Snapshots are immutable.");
+    }
+
+    @Override
+    public Edge<E, V> insertEdge(V uElement, V vElement, E eElement) {
+        throw new UnsupportedOperationException("Snapshots are immutable.");
+    }
+
+    @Override
+    public V removeVertex(Vertex<V> v) {
+        throw new UnsupportedOperationException("Snapshots are immutable.");
+    }
+
+    @Override
+    public E removeEdge(Edge<E, V> e) {
+        throw new UnsupportedOperationException("Snapshots are immutable.");
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(
+                String.format("[Graph with %d vertices and %d edges]\n", numVertices(), numEdges()));
+
+        sb.append("--- Vertices: \n");
+        for (Vertex<V> v : vertices) {
+            sb.append("\t").append(v.toString()).append("\n");
+        }
+        sb.append("\n--- Edges: \n");
+        for (Edge<E, V> e : edges()) {
+            sb.append("\t").append(e.toString()).append("\n");
+        }
+        return sb.append("\n").toString();
+    }
+}
@@ -0,0 +1,584 @@
+package graphvisualizer.graph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Predicate;
+
+/**
+ * Loads a directed graph from an edge-list file, one edge per line:
+ * <pre>
+ * source target [weight]
+ * </pre>
+ * Fields are separated by commas, semicolons, tabs or spaces and may be
+ * enclosed in double quotes. The weight defaults to 1. Blank lines and lines
+ * starting with <code>#</code> or <code>%</code> are ignored, and lines that
+ * cannot be parsed are skipped and counted.
+ * <p>
+ * The file is split into chunks that are parsed in parallel; the parsed chunks
+ * are merged into the graph in file order by the calling thread, in batches,
+ * through <code>insertAll</code> when the graph supports it. At most a few
+ * chunks per parsing thread are held at once, so memory does not grow with
+ * the size of the file beyond the graph itself. Vertices are created for the
+ * endpoints as they are first seen, each label being kept once; repeated
+ * edges are ignored.
+ * <p>
+ * For visualization, a subgraph can be loaded instead: edges can be filtered
+ * by their endpoints, sampled at a rate, and the number of vertices can be
+ * limited.
+ */
+public class EdgeListImporter {
+    private static final int DEFAULT_CHUNK_SIZE = 8 << 20;
+    private static final int DEFAULT_BATCH_SIZE = 1 << 20;
+    private static final int READ_SIZE = 1 << 16;
+    private static final int DEFAULT_WEIGHT = 1;
+
+    private final Graph<String, Integer> graph;
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private boolean header;
+    private Predicate<String> vertexFilter;
+    private double samplingRate = 1.0;
+    private long samplingSeed;
+    private int vertexLimit = Integer.MAX_VALUE;
+
+    /**
+     * Outcome of a load, with its throughput.
+     */
+    public static final class Statistics {
+        private final long bytes;
+        private final long lines;
+        private final long edgesInserted;
+        private final long verticesInserted;
+        private final long duplicates;
+        private final long filtered;
+        private final long malformed;
+        private final long nanos;
+
+        private Statistics(long bytes, long lines, long edgesInserted, long verticesInserted, long duplicates,
+                long filtered, long malformed, long nanos) {
+            this.bytes = bytes;
+            this.lines = lines;
+            this.edgesInserted = edgesInserted;
+            this.verticesInserted = verticesInserted;
+            this.duplicates = duplicates;
+            this.filtered = filtered;
+            this.malformed = malformed;
+            this.nanos = nanos;
+        }
+
+        public long bytes() {
+            return bytes;
+        }
+
+        /**
+         * Returns the number of edge lines read, not counting blank lines,
+         * comments and the header.
+         *
+         * @return the number of lines
+         */
+        public long lines() {
+            return lines;
+        }
+
+        public long edgesInserted() {
+            return edgesInserted;
+        }
+
+        public long verticesInserted() {
+            return verticesInserted;
+        }
+
+        /**
+         * Returns the number of edges ignored because the graph or an earlier
+         * line had them already.
+         *
+         * @return the number of repeated edges
+         */
+        public long duplicates() {
+            return duplicates;
+        }
+
+        /**
+         * Returns the number of edges left out by the filter, the sampling or
+         * the vertex limit.
+         *
+         * @return the number of edges left out
+         */
+        public long filtered() {
+            return filtered;
+        }
+
+        public long malformed() {
+            return malformed;
+        }
+
+        public long nanos() {
+            return nanos;
+        }
+
+        public double megabytesPerSecond() {
+            return nanos == 0 ? 0 : bytes / 1e6 / (nanos / 1e9);
+        }
+
+        public double linesPerSecond() {
+            return nanos == 0 ? 0 : lines / (nanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Loaded %d vertices and %d edges from %d lines in %.2f s (%.1f MB/s, %.0f lines/s); "
+                    + "%d repeated, %d left out, %d malformed", verticesInserted, edgesInserted, lines, nanos / 1e9,
+                    megabytesPerSecond(), linesPerSecond(), duplicates, filtered, malformed);
+        }
+    }
+
+    /* the edges of a chunk of the file, as parsed */
+    private static final class Chunk {
+        private String[] sources = new String[1024];
+        private String[] targets = new String[1024];
+        private int[] weights = new int[1024];
+        private int size;
+        private long lines;
+        private long filtered;
+        private long malformed;
+
+        void add(String source, String target, int weight) {
+            if (size == sources.length) {
+                sources = Arrays.copyOf(sources, 2 * size);
+                targets = Arrays.copyOf(targets, 2 * size);
+                weights = Arrays.copyOf(weights, 2 * size);
+            }
+            sources[size] = source;
+            targets[size] = target;
+            weights[size] = weight;
+            size++;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param graph graph receiving the vertices and edges
+     */
+    public EdgeListImporter(Graph<String, Integer> graph) {
+        this.graph = Objects.requireNonNull(graph);
+    }
+
+    /**
+     * Sets the number of threads parsing the file. Defaults to the number of
+     * processors.
+     *
+     * @param parallelism number of parsing threads
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive.");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets the number of bytes each parsing task reads. Defaults to 8 MB.
+     *
+     * @param chunkSize bytes per chunk
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive.");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Sets the number of edges inserted into the graph at once. Defaults to
+     * 2<sup>20</sup>.
+     *
+     * @param batchSize edges per insertion
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive.");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Sets whether the first line of the file is a header to be skipped.
+     *
+     * @param header true if the file has a header
+     */
+    public void setHeader(boolean header) {
+        this.header = header;
+    }
+
+    /**
+     * Keeps only the edges whose endpoints are both accepted by a filter.
+     *
+     * @param vertexFilter filter on vertex labels; null to keep all edges
+     */
+    public void setVertexFilter(Predicate<String> vertexFilter) {
+        this.vertexFilter = vertexFilter;
+    }
+
+    /**
+     * Keeps each edge with a probability. Whether an edge is kept only depends
+     * on its endpoints and the seed, so a load is reproducible.
+     *
+     * @param rate fraction of the edges to keep, from 0 to 1
+     * @param seed seed of the sampling
+     */
+    public void setSampling(double rate, long seed) {
+        if (!(rate >= 0 && rate <= 1)) {
+            throw new IllegalArgumentException("Sampling rate must be between 0 and 1.");
+        }
+        this.samplingRate = rate;
+        this.samplingSeed = seed;
+    }
+
+    /**
+     * Limits the number of vertices the load adds; once reached, edges to new
+     * vertices are left out.
+     *
+     * @param vertexLimit maximum number of vertices to add
+     */
+    public void setVertexLimit(int vertexLimit) {
+        if (vertexLimit < 0) {
+            throw new IllegalArgumentException("Vertex limit must not be negative.");
+        }
+        this.vertexLimit = vertexLimit;
+    }
+
+    /**
+     * Loads an edge-list file into the graph.
+     *
+     * @param path edge-list file
+     * @return what was loaded, and how fast
+     * @throws IOException if the file cannot be read
+     */
+    public Statistics load(Path path) throws IOException {
+        long start = System.nanoTime();
+        ExecutorService parsers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "edge-list-parser");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            Merge merge = new Merge();
+            Deque<Future<Chunk>> pending = new ArrayDeque<>();
+            long next = 0;
+            while (next < size || !pending.isEmpty()) {
+                while (next < size && pending.size() < 2 * parallelism) {
+                    long from = next;
+                    long to = Math.min(size, from + chunkSize);
+                    pending.add(parsers.submit(() -> parse(channel, from, to)));
+                    next = to;
+                }
+                merge.add(await(pending.poll()));
+            }
+            merge.flush();
+            return new Statistics(size, merge.lines, merge.edgesInserted, merge.verticesInserted, merge.duplicates,
+                    merge.filtered, merge.malformed, System.nanoTime() - start);
+        } finally {
+            parsers.shutdownNow();
+        }
+    }
+
+    private static Chunk await(Future<Chunk> chunk) throws IOException {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /*
+     * Parses the lines starting within from..to-1; the last one may run past
+     * 'to'. A line belongs to the chunk holding its first byte.
+     */
+    private Chunk parse(FileChannel channel, long from, long to) throws IOException {
+        Chunk chunk = new Chunk();
+        long size = channel.size();
+        long position = from;
+        if (from > 0) {
+            position = from - 1; //so that a line starting exactly at 'from' is kept
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(to - position + 1, Integer.MAX_VALUE - 8));
+        position += read(channel, buffer, position);
+        buffer.flip();
+
+        int offset = 0;
+        if (from > 0) {
+            //skip the end of the line started by the previous chunk
+            while (offset < buffer.limit() && buffer.get(offset) != '\n') {
+                offset++;
+            }
+            offset++;
+        }
+        long lineStart = (from > 0 ? from - 1 : 0) + offset;
+        boolean skipHeader = header && from == 0;
+
+        while (lineStart < to && lineStart < size) {
+            int end = offset;
+            while (true) {
+                while (end < buffer.limit() && buffer.get(end) != '\n') {
+                    end++;
+                }
+                if (end < buffer.limit() || position >= size) {
+                    break;
+                }
+                //the line runs past the buffer: keep it and read on
+                ByteBuffer grown = ByteBuffer.allocate(buffer.capacity() - offset + READ_SIZE);
+                buffer.position(offset);
+                grown.put(buffer);
+                end -= offset;
+                offset = 0;
+                buffer = grown;
+                position += read(channel, buffer, position);
+                buffer.flip();
+            }
+            if (skipHeader) {
+                skipHeader = false;
+            } else {
+                parseLine(buffer, offset, end, chunk);
+            }
+            lineStart += end - offset + 1;
+            offset = end + 1;
+        }
+        return chunk;
+    }
+
+    private static int read(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    private void parseLine(ByteBuffer buffer, int from, int to, Chunk chunk) {
+        if (to > from && buffer.get(to - 1) == '\r') {
+            to--;
+        }
+        int[] bounds = new int[6];
+        int fields = 0;
+        int i = from;
+        while (true) {
+            while (i < to && isSeparator(buffer.get(i))) {
+                i++;
+            }
+            if (i == to) {
+                break;
+            }
+            if (fields == 0 && (buffer.get(i) == '#' || buffer.get(i) == '%')) {
+                return;
+            }
+            if (fields == 3) {
+                fields++;
+                break;
+            }
+            int start = i;
+            if (buffer.get(i) == '"') {
+                start++;
+                i++;
+                while (i < to && buffer.get(i) != '"') {
+                    i++;
+                }
+                bounds[2 * fields] = start;
+                bounds[2 * fields + 1] = i;
+                i = Math.min(i + 1, to);
+            } else {
+                while (i < to && !isSeparator(buffer.get(i))) {
+                    i++;
+                }
+                bounds[2 * fields] = start;
+                bounds[2 * fields + 1] = i;
+            }
+            fields++;
+        }
+        if (fields == 0) {
+            return;
+        }
+
+        chunk.lines++;
+        if (fields < 2 || fields > 3) {
+            chunk.malformed++;
+            return;
+        }
+        int weight = DEFAULT_WEIGHT;
+        if (fields == 3) {
+            try {
+                weight = Integer.parseInt(decode(buffer, bounds[4], bounds[5]));
+            } catch (NumberFormatException e) {
+                chunk.malformed++;
+                return;
+            }
+        }
+        String source = decode(buffer, bounds[0], bounds[1]);
+        String target = decode(buffer, bounds[2], bounds[3]);
+        if (!sampled(source, target)
+                || vertexFilter != null && !(vertexFilter.test(source) && vertexFilter.test(target))) {
+            chunk.filtered++;
+            return;
+        }
+        chunk.add(source, target, weight);
+    }
+
+    private static boolean isSeparator(byte b) {
+        return b == ',' || b == ';' || b == '\t' || b == ' ';
+    }
+
+    private static String decode(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean sampled(String source, String target) {
+        if (samplingRate >= 1) {
+            return true;
+        }
+        long h = (source.hashCode() * 31L + target.hashCode()) ^ samplingSeed;
+        //64-bit finalizer of MurmurHash3
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (h >>> 11) * 0x1.0p-53 < samplingRate;
+    }
+
+    /*
+     * Merges the parsed chunks into the graph, on the calling thread. Vertices
+     * are numbered densely in the order they are first seen, the graph's own
+     * vertices first, so that repeated edges are found by their pair of
+     * numbers.
+     */
+    private final class Merge {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final Set<Long> edges = new HashSet<>();
+        private int verticesBefore;
+
+        private final List<String> batchVertices = new ArrayList<>();
+        private final List<String> batchSources = new ArrayList<>();
+        private final List<String> batchTargets = new ArrayList<>();
+        private final List<Integer> batchWeights = new ArrayList<>();
+
+        private long lines;
+        private long edgesInserted;
+        private long verticesInserted;
+        private long duplicates;
+        private long filtered;
+        private long malformed;
+
+        Merge() {
+            synchronized (graph) {
+                for (Vertex<String> v : graph.vertices()) {
+                    ids.put(v.element(), ids.size());
+                }
+                for (Edge<Integer, String> e : graph.edges()) {
+                    Vertex<String>[] ends = e.vertices();
+                    edges.add(key(ids.get(ends[0].element()), ids.get(ends[1].element())));
+                }
+            }
+            verticesBefore = ids.size();
+        }
+
+        void add(Chunk chunk) {
+            lines += chunk.lines;
+            filtered += chunk.filtered;
+            malformed += chunk.malformed;
+            for (int i = 0; i < chunk.size; i++) {
+                Integer source = ids.get(chunk.sources[i]);
+                Integer target = ids.get(chunk.targets[i]);
+                int missing = (source == null ? 1 : 0)
+                        + (target == null && !chunk.targets[i].equals(chunk.sources[i]) ? 1 : 0);
+                if (ids.size() - verticesBefore + missing > vertexLimit) {
+                    filtered++;
+                    continue;
+                }
+                if (source == null) {
+                    source = vertex(chunk.sources[i]);
+                }
+                if (target == null) {
+                    target = vertex(chunk.targets[i]);
+                }
+                if (!edges.add(key(source, target))) {
+                    duplicates++;
+                    continue;
+                }
+                batchSources.add(chunk.sources[i]);
+                batchTargets.add(chunk.targets[i]);
+                batchWeights.add(chunk.weights[i]);
+                if (batchSources.size() >= batchSize) {
+                    flush();
+                }
+            }
+        }
+
+        /* numbers a new vertex, keeping this instance of its label */
+        private int vertex(String label) {
+            Integer id = ids.get(label);
+            if (id == null) {
+                id = ids.size();
+                ids.put(label, id);
+                batchVertices.add(label);
+            }
+            return id;
+        }
+
+        private long key(int source, int target) {
+            return (long) source << 32 | target & 0xffffffffL;
+        }
+
+        @SuppressWarnings("unchecked")
+        void flush() {
+            if (batchVertices.isEmpty() && batchSources.isEmpty()) {
+                return;
+            }
+            if (graph instanceof AdjacencyMapDigraph) {
+                ((AdjacencyMapDigraph<String, Integer>) graph).insertAll(batchVertices, batchSources, batchTargets,
+                        batchWeights);
+            } else if (graph instanceof ConcurrentAdjacencyMapDigraph) {
+                ((ConcurrentAdjacencyMapDigraph<String, Integer>) graph).insertAll(batchVertices, batchSources,
+                        batchTargets, batchWeights);
+            } else {
+                synchronized (graph) {
+                    for (String label : batchVertices) {
+                        graph.insertVertex(label);
+                    }
+                    for (int i = 0; i < batchSources.size(); i++) {
+                        graph.insertEdge(batchSources.get(i), batchTargets.get(i), batchWeights.get(i));
+                    }
+                }
+            }
+            verticesInserted += batchVertices.size();
+            edgesInserted += batchSources.size();
+            batchVertices.clear();
+            batchSources.clear();
+            batchTargets.clear();
+            batchWeights.clear();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package graphvisualizer.graph;
+
+import java.util.Collection;
+
+/**
+ * Receives the structural changes of an {@link ObservableGraph}. Methods are
+ * called by the thread that mutated the graph, right after the change and
+ * while the graph is still locked, so implementations should only record the
+ * change and return.
+ *
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
+public interface GraphChangeListener<V, E> {
+    /* a vertex was inserted */
+    void vertexInserted(Vertex<V> v);
+    /* a vertex was removed; its incident edges were reported as removed before */
+    void vertexRemoved(Vertex<V> v);
+    /* an edge was inserted */
+    void edgeInserted(Edge<E, V> e);
+    /* an edge was removed */
+    void edgeRemoved(Edge<E, V> e);
+    /* all vertices and edges were removed at once */
+    void graphCleared();
+    /* vertices, then edges, were inserted at once; reported one by one unless overridden */
+    default void bulkInserted(Collection<Vertex<V>> vertices, Collection<Edge<E, V>> edges) {
+        for (Vertex<V> v : vertices) {
+            vertexInserted(v);
+        }
+        for (Edge<E, V> e : edges) {
+            edgeInserted(e);
+        }
+    }
+}
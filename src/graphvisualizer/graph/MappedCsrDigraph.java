@@ -0,0 +1,557 @@
+package graphvisualizer.graph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * An immutable directed graph served directly from a memory-mapped file, so
+ * that opening it only maps and validates the file: no vertex or edge object
+ * is created until it is asked for.
+ * <p>
+ * The file, written by {@link #write(Graph, Path)}, holds the same compressed
+ * sparse row arrays as {@link CsrDigraph}, as little-endian 32-bit integers,
+ * after a 24-byte header:
+ * <pre>
+ * header          magic "CSRG", version, n, m, length of the string table (long)
+ * outOffsets      n + 1   outgoing edges of v are the edges outOffsets[v] to outOffsets[v + 1] - 1,
+ * outTargets      m       sorted by target
+ * edgeSources     m
+ * edgeElements    m       Integer.MIN_VALUE for null
+ * inOffsets       n + 1   incoming edges of v, sorted by source, as edge numbers
+ * inEdges         m
+ * stringOffsets   n + 1   element of v is the UTF-8 string table from stringOffsets[v] to stringOffsets[v + 1]
+ * sortedVertices  n       vertices by the bytes of their element, to look elements up
+ * strings                 string table
+ * </pre>
+ * Vertices and edges are views over their numbers and compare by number; a
+ * new view is returned on every call. A vertex view decodes its element when
+ * it is first requested and keeps it, so callers reading an element often
+ * should keep the view. All mutating methods throw
+ * {@link UnsupportedOperationException}.
+ */
+public final class MappedCsrDigraph implements Graph<String, Integer> {
+    private static final int MAGIC = 0x47525343; // "CSRG", little-endian
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+    private static final int NULL_ELEMENT = Integer.MIN_VALUE;
+
+    private final int n;
+    private final int m;
+    private final IntBuffer outOffsets;
+    private final IntBuffer outTargets;
+    private final IntBuffer edgeSources;
+    private final IntBuffer edgeElements;
+    private final IntBuffer inOffsets;
+    private final IntBuffer inEdges;
+    private final IntBuffer stringOffsets;
+    private final IntBuffer sortedVertices;
+    private final ByteBuffer strings;
+
+    /**
+     * A vertex of the file, identified by its number.
+     */
+    private final class MVertex implements Vertex<String> {
+        private final int id;
+        private String element;
+
+        MVertex(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public String element() {
+            if (element == null) {
+                element = decode(id);
+            }
+            return element;
+        }
+
+        @Override
+        public String toString() {
+            return "Vertex{" + element() + "}";
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (o == null || getClass() != o.getClass())
+                return false;
+            MVertex vertex = (MVertex) o;
+            return id == vertex.id && owner() == vertex.owner();
+        }
+
+        @Override
+        public int hashCode() {
+            return id;
+        }
+
+        private MappedCsrDigraph owner() {
+            return MappedCsrDigraph.this;
+        }
+    }
+
+    /**
+     * An edge of the file, identified by its number.
+     */
+    private final class MEdge implements Edge<Integer, String> {
+        private final int id;
+
+        MEdge(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public Integer element() {
+            int element = edgeElements.get(id);
+            return element == NULL_ELEMENT ? null : element;
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public Vertex<String>[] vertices() {
+            return (Vertex<String>[]) new Vertex[] { new MVertex(edgeSources.get(id)), new MVertex(outTargets.get(id)) };
+        }
+
+        @Override
+        public String toString() {
+            Vertex<String>[] ends = vertices();
+            return "Edge from " + ends[0] + " to " + ends[1] + " with weight of " + element();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (o == null || getClass() != o.getClass())
+                return false;
+            MEdge edge = (MEdge) o;
+            return id == edge.id && owner() == edge.owner();
+        }
+
+        @Override
+        public int hashCode() {
+            return id;
+        }
+
+        private MappedCsrDigraph owner() {
+            return MappedCsrDigraph.this;
+        }
+    }
+
+    private MappedCsrDigraph(FileChannel channel) throws IOException {
+        ByteBuffer header = map(channel, 0, HEADER_BYTES);
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a graph file.");
+        }
+        if (header.getInt() != VERSION) {
+            throw new IOException("Unsupported graph file version.");
+        }
+        n = header.getInt();
+        m = header.getInt();
+        long stringBytes = header.getLong();
+        if (n < 0 || m < 0 || stringBytes < 0 || stringBytes > Integer.MAX_VALUE) {
+            throw new IOException("Corrupt graph file header.");
+        }
+
+        long expected = HEADER_BYTES + 4L * (3L * (n + 1) + n + 4L * m) + stringBytes;
+        if (channel.size() != expected) {
+            throw new IOException("Graph file has " + channel.size() + " bytes, expected " + expected + ".");
+        }
+
+        //each array is mapped on its own, so that only the string table is limited to 2 GB
+        long position = HEADER_BYTES;
+        outOffsets = map(channel, position, 4L * (n + 1)).asIntBuffer();
+        position += 4L * (n + 1);
+        outTargets = map(channel, position, 4L * m).asIntBuffer();
+        position += 4L * m;
+        edgeSources = map(channel, position, 4L * m).asIntBuffer();
+        position += 4L * m;
+        edgeElements = map(channel, position, 4L * m).asIntBuffer();
+        position += 4L * m;
+        inOffsets = map(channel, position, 4L * (n + 1)).asIntBuffer();
+        position += 4L * (n + 1);
+        inEdges = map(channel, position, 4L * m).asIntBuffer();
+        position += 4L * m;
+        stringOffsets = map(channel, position, 4L * (n + 1)).asIntBuffer();
+        position += 4L * (n + 1);
+        sortedVertices = map(channel, position, 4L * n).asIntBuffer();
+        position += 4L * n;
+        strings = map(channel, position, stringBytes);
+
+        validate((int) stringBytes);
+    }
+
+    /*
+     * Checks every offset and number once, so that a corrupt file fails here
+     * rather than with an IndexOutOfBoundsException while it is traversed.
+     */
+    private void validate(int stringBytes) throws IOException {
+        checkOffsets(outOffsets, m, "outgoing edge offsets");
+        checkOffsets(inOffsets, m, "incoming edge offsets");
+        checkOffsets(stringOffsets, stringBytes, "string offsets");
+        checkRange(outTargets, n, "edge targets");
+        checkRange(edgeSources, n, "edge sources");
+        checkRange(inEdges, m, "incoming edges");
+        checkRange(sortedVertices, n, "sorted vertices");
+    }
+
+    private void checkOffsets(IntBuffer offsets, int end, String section) throws IOException {
+        if (offsets.get(0) != 0 || offsets.get(n) != end) {
+            throw new IOException("Corrupt graph file: " + section + " do not span the section.");
+        }
+        for (int v = 0; v < n; v++) {
+            if (offsets.get(v) > offsets.get(v + 1)) {
+                throw new IOException("Corrupt graph file: " + section + " decrease at " + v + ".");
+            }
+        }
+    }
+
+    private static void checkRange(IntBuffer values, int bound, String section) throws IOException {
+        for (int i = 0; i < values.limit(); i++) {
+            int value = values.get(i);
+            if (value < 0 || value >= bound) {
+                throw new IOException("Corrupt graph file: " + section + " out of range at " + i + ".");
+            }
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Graph file section exceeds 2 GB.");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Maps a graph file. The file must not be modified while the graph is in
+     * use.
+     *
+     * @param path graph file
+     * @return the graph
+     * @throws IOException if the file cannot be read or is not a graph file
+     */
+    public static MappedCsrDigraph open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new MappedCsrDigraph(channel);
+        }
+    }
+
+    /**
+     * Writes a graph to a file that {@link #open(Path)} can map.
+     *
+     * @param graph graph to write; vertex elements must not be null
+     * @param path  graph file, replaced if it exists
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if an edge element is
+     *                                  {@link Integer#MIN_VALUE}, which the
+     *                                  file uses for null
+     */
+    public static void write(Graph<String, Integer> graph, Path path) throws IOException {
+        CsrDigraph<String, Integer> csr;
+        if (graph instanceof CsrDigraph) {
+            csr = (CsrDigraph<String, Integer>) graph;
+        } else {
+            synchronized (graph) {
+                csr = CsrDigraph.of(graph);
+            }
+        }
+        int n = csr.numVertices();
+        int m = csr.numEdges();
+
+        byte[][] encoded = new byte[n][];
+        long stringBytes = 0;
+        for (int v = 0; v < n; v++) {
+            encoded[v] = Objects.requireNonNull(csr.vertex(v).element(), "Null vertex element.")
+                    .getBytes(StandardCharsets.UTF_8);
+            stringBytes += encoded[v].length;
+        }
+        if (stringBytes > Integer.MAX_VALUE) {
+            throw new IOException("String table exceeds 2 GB.");
+        }
+
+        Integer[] sorted = new Integer[n];
+        for (int v = 0; v < n; v++) {
+            sorted[v] = v;
+        }
+        Arrays.sort(sorted, (a, b) -> Arrays.compareUnsigned(encoded[a], encoded[b]));
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(m).putLong(stringBytes);
+
+            buffer = putInts(channel, buffer, csr.outOffsets(), n + 1);
+            buffer = putInts(channel, buffer, csr.outTargets(), m);
+            buffer = putInts(channel, buffer, csr.edgeSources(), m);
+            int[] elements = new int[m];
+            for (int k = 0; k < m; k++) {
+                Integer element = csr.edgeElement(k);
+                if (element != null && element == NULL_ELEMENT) {
+                    throw new IllegalArgumentException("Edge element Integer.MIN_VALUE is reserved for null.");
+                }
+                elements[k] = element == null ? NULL_ELEMENT : element;
+            }
+            buffer = putInts(channel, buffer, elements, m);
+            buffer = putInts(channel, buffer, csr.inOffsets(), n + 1);
+            buffer = putInts(channel, buffer, csr.inEdges(), m);
+
+            int[] offsets = new int[n + 1];
+            for (int v = 0; v < n; v++) {
+                offsets[v + 1] = offsets[v] + encoded[v].length;
+            }
+            buffer = putInts(channel, buffer, offsets, n + 1);
+            int[] order = new int[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = sorted[i];
+            }
+            buffer = putInts(channel, buffer, order, n);
+
+            for (byte[] bytes : encoded) {
+                int written = 0;
+                while (written < bytes.length) {
+                    if (!buffer.hasRemaining()) {
+                        flush(channel, buffer);
+                    }
+                    int chunk = Math.min(buffer.remaining(), bytes.length - written);
+                    buffer.put(bytes, written, chunk);
+                    written += chunk;
+                }
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    private static ByteBuffer putInts(FileChannel channel, ByteBuffer buffer, int[] values, int count)
+            throws IOException {
+        for (int i = 0; i < count; i++) {
+            if (buffer.remaining() < 4) {
+                flush(channel, buffer);
+            }
+            buffer.putInt(values[i]);
+        }
+        return buffer;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private String decode(int id) {
+        int from = stringOffsets.get(id);
+        byte[] bytes = new byte[stringOffsets.get(id + 1) - from];
+        strings.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /* compares the element of vertex id with the given bytes, as unsigned bytes */
+    private int compareElement(int id, byte[] bytes) {
+        int from = stringOffsets.get(id);
+        int length = stringOffsets.get(id + 1) - from;
+        for (int i = 0; i < Math.min(length, bytes.length); i++) {
+            int c = Byte.compareUnsigned(strings.get(from + i), bytes[i]);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return Integer.compare(length, bytes.length);
+    }
+
+    /* validate that this vertex belongs to the graph */
+    private int validateVertex(Vertex<String> v) throws InvalidVertexException {
+        if (v == null)
+            throw new InvalidVertexException("Null vertex.");
+        if (!(v instanceof MappedCsrDigraph.MVertex) || ((MVertex) v).owner() != this)
+            throw new InvalidVertexException("Vertex does not belong to this graph.");
+        return ((MVertex) v).id;
+    }
+
+    /* validate that this edge belongs to the graph */
+    private int validateEdge(Edge<Integer, String> e) throws InvalidEdgeException {
+        if (e == null)
+            throw new InvalidEdgeException("Null edge.");
+        if (!(e instanceof MappedCsrDigraph.MEdge) || ((MEdge) e).owner() != this)
+            throw new InvalidEdgeException("Edge does not belong to this graph.");
+        return ((MEdge) e).id;
+    }
+
+    /**
+     * Returns the number of a vertex.
+     *
+     * @param v vertex of this graph
+     * @return its number, from 0 to numVertices() - 1
+     * @throws InvalidVertexException if the vertex is not of this graph
+     */
+    public int vertexId(Vertex<String> v) throws InvalidVertexException {
+        return validateVertex(v);
+    }
+
+    /**
+     * Returns the vertex with a number.
+     *
+     * @param id vertex number
+     * @return the vertex
+     */
+    public Vertex<String> vertex(int id) {
+        Objects.checkIndex(id, n);
+        return new MVertex(id);
+    }
+
+    /**
+     * Returns the vertex storing an element, by binary search over the sorted
+     * string table.
+     *
+     * @param element vertex element
+     * @return the vertex; null if none
+     */
+    public Vertex<String> vertex(String element) {
+        byte[] bytes = element.getBytes(StandardCharsets.UTF_8);
+        int low = 0, high = n - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int id = sortedVertices.get(middle);
+            int c = compareElement(id, bytes);
+            if (c < 0) {
+                low = middle + 1;
+            } else if (c > 0) {
+                high = middle - 1;
+            } else {
+                return new MVertex(id);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int numVertices() {
+        return n;
+    }
+
+    @Override
+    public int numEdges() {
+        return m;
+    }
+
+    @Override
+    public Collection<Vertex<String>> vertices() {
+        return new AbstractList<Vertex<String>>() {
+            @Override
+            public Vertex<String> get(int index) {
+                return vertex(index);
+            }
+
+            @Override
+            public int size() {
+                return n;
+            }
+        };
+    }
+
+    @Override
+    public Collection<Edge<Integer, String>> edges() {
+        return edgeRange(0, m, null);
+    }
+
+    @Override
+    public Collection<Edge<Integer, String>> incomingEdges(Vertex<String> v) throws InvalidVertexException {
+        int id = validateVertex(v);
+        return edgeRange(inOffsets.get(id), inOffsets.get(id + 1), inEdges);
+    }
+
+    @Override
+    public Collection<Edge<Integer, String>> outgoingEdges(Vertex<String> v) throws InvalidVertexException {
+        int id = validateVertex(v);
+        return edgeRange(outOffsets.get(id), outOffsets.get(id + 1), null);
+    }
+
+    /* edges from..to-1, or the edges listed there in 'edgeIds' */
+    private List<Edge<Integer, String>> edgeRange(int from, int to, IntBuffer edgeIds) {
+        return new AbstractList<Edge<Integer, String>>() {
+            @Override
+            public Edge<Integer, String> get(int index) {
+                Objects.checkIndex(index, to - from);
+                return new MEdge(edgeIds == null ? from + index : edgeIds.get(from + index));
+            }
+
+            @Override
+            public int size() {
+                return to - from;
+            }
+        };
+    }
+
+    @Override
+    public Vertex<String> opposite(Vertex<String> v, Edge<Integer, String> e)
+            throws InvalidVertexException, InvalidEdgeException {
+        int id = validateVertex(v);
+        int edge = validateEdge(e);
+
+        if (edgeSources.get(edge) == id) {
+            return new MVertex(outTargets.get(edge));
+        } else if (outTargets.get(edge) == id) {
+            return new MVertex(edgeSources.get(edge));
+        } else {
+            throw new InvalidEdgeException("v is not incident to this edge.");
+        }
+    }
+
+    @Override
+    public Edge<Integer, String> getEdge(Vertex<String> u, Vertex<String> v) throws InvalidVertexException {
+        int source = validateVertex(u);
+        int target = validateVertex(v);
+        int low = outOffsets.get(source), high = outOffsets.get(source + 1) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int c = Integer.compare(outTargets.get(middle), target);
+            if (c < 0) {
+                low = middle + 1;
+            } else if (c > 0) {
+                high = middle - 1;
+            } else {
+                return new MEdge(middle);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Vertex<String> insertVertex(String element) {
+        throw new UnsupportedOperationException("Mapped graphs are immutable.");
+    }
+
+    @Override
+    public Edge<Integer, String> insertEdge(Vertex<String> u, Vertex<String> v, Integer element) {
+        throw new UnsupportedOperationException("Mapped graphs are immutable.");
+    }
+
+    @Override
+    public Edge<Integer, String> insertEdge(String uElement, String vElement, Integer eElement) {
+        throw new UnsupportedOperationException("Mapped graphs are immutable.");
+    }
+
+    @Override
+    public String removeVertex(Vertex<String> v) {
+        throw new UnsupportedOperationException("Mapped graphs are immutable.");
+    }
+
+    @Override
+    public Integer removeEdge(Edge<Integer, String> e) {
+        throw new UnsupportedOperationException("Mapped graphs are immutable.");
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[Graph with %d vertices and %d edges]\n", numVertices(), numEdges());
+    }
+}
@@ -0,0 +1,15 @@
+package graphvisualizer.graph;
+
+/**
+ * A {@link Graph} that reports its structural changes to registered
+ * {@link GraphChangeListener}s.
+ *
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
+public interface ObservableGraph<V, E> extends Graph<V, E> {
+    /* register a listener for subsequent changes */
+    void addGraphChangeListener(GraphChangeListener<V, E> listener);
+    /* unregister a previously registered listener */
+    void removeGraphChangeListener(GraphChangeListener<V, E> listener);
+}
@@ -34,13 +34,16 @@ import javafx.scene.shape.Path;
  */
 public class SmartArrow extends Path implements SmartStylableNode {
     
+    /* length of the arrow along the edge */
+    static final double SIZE = 5;
+    
     public SmartArrow() {
         
         /* Create this arrow shape */
         getElements().add(new MoveTo(0, 0));  
-        getElements().add(new LineTo(-5, 5));
+        getElements().add(new LineTo(-SIZE, SIZE));
         getElements().add(new MoveTo(0, 0));        
-        getElements().add(new LineTo(-5, -5));    
+        getElements().add(new LineTo(-SIZE, -SIZE));    
         
         /* Add the corresponding css class */
         getStyleClass().add("arrow");        
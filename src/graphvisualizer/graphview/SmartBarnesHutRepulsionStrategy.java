@@ -0,0 +1,257 @@
+package graphvisualizer.graphview;
+
+import java.util.Arrays;
+
+/**
+ * Approximates the repelling forces between vertices with the Barnes-Hut
+ * algorithm.
+ * <br>
+ * The vertices are inserted into a quadtree and, when computing the force
+ * acting on a vertex, any cell that is far enough away is treated as a single
+ * body placed at its center of mass. A cell is far enough when
+ * <code>cellSize / distance &lt; theta</code>; with <code>theta = 0</code> the
+ * result matches {@link SmartExactRepulsionStrategy}. Each layout iteration
+ * costs O(V log V) instead of O(V^2).
+ * <br>
+ * The quadtree is kept in primitive arrays that are reused between iterations.
+ *
+ * @see SmartRepulsionStrategy
+ */
+public class SmartBarnesHutRepulsionStrategy implements SmartRepulsionStrategy {
+
+    /* Bodies that end up in the same cell at this depth are chained in a single leaf */
+    private static final int MAX_DEPTH = 24;
+    private static final int STACK_SIZE = 3 * MAX_DEPTH + 4;
+
+    private final double theta;
+
+    /*
+    QUADTREE, ONE ENTRY PER CELL. THE ROOT IS CELL 0.
+     */
+    private int cellCount;
+    private double[] cellX = new double[0];     //min x of the cell square
+    private double[] cellY = new double[0];     //min y of the cell square
+    private double[] cellSize = new double[0];  //side of the cell square
+    private int[] cellMass = new int[0];        //number of bodies within the cell
+    private double[] massX = new double[0];     //center of mass (x), after prepare()
+    private double[] massY = new double[0];     //center of mass (y), after prepare()
+    private int[] firstChild = new int[0];      //first of the 4 consecutive children; -1 if leaf
+    private int[] firstBody = new int[0];       //first body of a leaf; -1 if none
+
+    /*
+    PER BODY
+     */
+    private int[] nextBody = new int[0];        //next body in the same leaf; -1 if none
+
+    /**
+     * Creates a strategy with the given accuracy parameter.
+     *
+     * @param theta opening threshold; lower values are more accurate and slower
+     */
+    public SmartBarnesHutRepulsionStrategy(double theta) {
+        if (theta < 0) {
+            throw new IllegalArgumentException("Theta cannot be negative.");
+        }
+        this.theta = theta;
+    }
+
+    /**
+     * Returns the opening threshold used by this strategy.
+     *
+     * @return theta
+     */
+    public double getTheta() {
+        return theta;
+    }
+
+    @Override
+    public void prepare(double[] x, double[] y, int count) {
+        if (nextBody.length < count) {
+            nextBody = new int[Math.max(count, nextBody.length * 2)];
+        }
+
+        cellCount = 0;
+        if (count == 0) {
+            return;
+        }
+
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY,
+                maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+
+        //slightly enlarged so that bodies on the max border still fall inside
+        double size = Math.max(Math.max(maxX - minX, maxY - minY), 1) * 1.001;
+        newCell(minX, minY, size);
+
+        for (int i = 0; i < count; i++) {
+            insert(i, x, y);
+        }
+
+        //turn accumulated coordinates into centers of mass
+        for (int c = 0; c < cellCount; c++) {
+            if (cellMass[c] > 0) {
+                massX[c] /= cellMass[c];
+                massY[c] /= cellMass[c];
+            }
+        }
+    }
+
+    @Override
+    public void accumulate(double[] x, double[] y, int from, int to, double force, double[] fx, double[] fy) {
+        if (cellCount == 0) {
+            return;
+        }
+
+        //local so that disjoint ranges can be computed concurrently
+        final int[] stack = new int[STACK_SIZE];
+        final double thetaSquared = theta * theta;
+
+        for (int i = from; i < to; i++) {
+            final double px = x[i];
+            final double py = y[i];
+            double sumX = 0, sumY = 0;
+
+            int top = 0;
+            stack[top++] = 0;
+
+            while (top > 0) {
+                int c = stack[--top];
+
+                if (firstChild[c] < 0) {
+                    //leaf: exact contribution of each body
+                    for (int j = firstBody[c]; j >= 0; j = nextBody[j]) {
+                        if (j == i) {
+                            continue;
+                        }
+                        double dx = px - x[j];
+                        double dy = py - y[j];
+                        double distance = Math.sqrt(dx * dx + dy * dy);
+                        if (distance > 0) {
+                            double factor = UtilitiesPoint2D.repellingFunction(distance, force) / distance;
+                            sumX += dx * factor;
+                            sumY += dy * factor;
+                        }
+                    }
+                    continue;
+                }
+
+                double dx = px - massX[c];
+                double dy = py - massY[c];
+                double distanceSquared = dx * dx + dy * dy;
+                double size = cellSize[c];
+
+                //cells containing the body itself are always opened
+                boolean inside = px >= cellX[c] && px < cellX[c] + size
+                        && py >= cellY[c] && py < cellY[c] + size;
+
+                if (!inside && size * size < thetaSquared * distanceSquared) {
+                    double distance = Math.sqrt(distanceSquared);
+                    double factor = cellMass[c] * UtilitiesPoint2D.repellingFunction(distance, force) / distance;
+                    sumX += dx * factor;
+                    sumY += dy * factor;
+                } else {
+                    int child = firstChild[c];
+                    for (int k = 0; k < 4; k++) {
+                        if (cellMass[child + k] > 0) {
+                            stack[top++] = child + k;
+                        }
+                    }
+                }
+            }
+
+            fx[i] += sumX;
+            fy[i] += sumY;
+        }
+    }
+
+    private void insert(int body, double[] x, double[] y) {
+        double bx = x[body];
+        double by = y[body];
+        int c = 0;
+        int depth = 0;
+
+        for (;;) {
+            cellMass[c]++;
+            massX[c] += bx;
+            massY[c] += by;
+
+            if (firstChild[c] >= 0) {
+                c = childFor(c, bx, by);
+                depth++;
+                continue;
+            }
+
+            if (firstBody[c] < 0 || depth >= MAX_DEPTH) {
+                nextBody[body] = firstBody[c];
+                firstBody[c] = body;
+                return;
+            }
+
+            //occupied leaf: split it and push the existing body one level down
+            int existing = firstBody[c];
+            firstBody[c] = -1;
+            subdivide(c);
+
+            int target = childFor(c, x[existing], y[existing]);
+            firstBody[target] = existing;
+            nextBody[existing] = -1;
+            cellMass[target] = 1;
+            massX[target] = x[existing];
+            massY[target] = y[existing];
+
+            c = childFor(c, bx, by);
+            depth++;
+        }
+    }
+
+    private int childFor(int c, double bx, double by) {
+        double half = cellSize[c] / 2;
+        int quadrant = (bx >= cellX[c] + half ? 1 : 0) + (by >= cellY[c] + half ? 2 : 0);
+        return firstChild[c] + quadrant;
+    }
+
+    private void subdivide(int c) {
+        double half = cellSize[c] / 2;
+        double x = cellX[c];
+        double y = cellY[c];
+
+        firstChild[c] = newCell(x, y, half);
+        newCell(x + half, y, half);
+        newCell(x, y + half, half);
+        newCell(x + half, y + half, half);
+    }
+
+    private int newCell(double x, double y, double size) {
+        if (cellCount == cellX.length) {
+            grow();
+        }
+
+        int c = cellCount++;
+        cellX[c] = x;
+        cellY[c] = y;
+        cellSize[c] = size;
+        cellMass[c] = 0;
+        massX[c] = 0;
+        massY[c] = 0;
+        firstChild[c] = -1;
+        firstBody[c] = -1;
+        return c;
+    }
+
+    private void grow() {
+        int capacity = Math.max(64, cellX.length * 2);
+        cellX = Arrays.copyOf(cellX, capacity);
+        cellY = Arrays.copyOf(cellY, capacity);
+        cellSize = Arrays.copyOf(cellSize, capacity);
+        cellMass = Arrays.copyOf(cellMass, capacity);
+        massX = Arrays.copyOf(massX, capacity);
+        massY = Arrays.copyOf(massY, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+        firstBody = Arrays.copyOf(firstBody, capacity);
+    }
+}
@@ -0,0 +1,687 @@
+package graphvisualizer.graphview;
+
+import java.util.*;
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.geometry.VPos;
+import javafx.scene.Cursor;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Tooltip;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Paint;
+import javafx.scene.shape.Circle;
+import javafx.scene.shape.CubicCurve;
+import javafx.scene.shape.Line;
+import javafx.scene.shape.Shape;
+import javafx.scene.shape.StrokeLineCap;
+import javafx.scene.shape.StrokeType;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * Draws the vertices, edges, arrows and labels of a {@link SmartGraphPanel} on
+ * a single {@link Canvas}, instead of adding a node for each of them to the
+ * scene graph.
+ * <br>
+ * The panel still creates its vertex, edge and label nodes, which keep the
+ * positions, the geometry of the curves and the styling applied through
+ * {@link SmartStylableNode}, but they are never added to the scene, so they
+ * take no part in the CSS, layout and bounds passes of each frame. Instead:
+ * <ul>
+ * <li>the canvas is repainted on the next pulse after any of them changes, in
+ * one pass per kind of element, and one path per distinct style;</li>
+ * <li>styles are resolved once per combination of style classes and inline
+ * style, by applying the panel's stylesheet to a probe node;</li>
+ * <li>clicks, drags and tooltips find the element under the mouse through a
+ * uniform grid over the vertices and the flattened edges, rebuilt when
+ * needed after the elements moved.</li>
+ * </ul>
+ * All methods must be called from the JavaFX Application Thread.
+ *
+ * @see SmartGraphPanel
+ */
+class SmartCanvasRenderer {
+
+    /* side of the cells of the hit-testing grid, in pixels */
+    private static final double CELL_SIZE = 64;
+    /* distance, in pixels, within which the mouse hits an edge */
+    private static final double HIT_TOLERANCE = 4;
+    /* straight segments an edge is approximated by when hit-tested */
+    private static final int CURVE_SEGMENTS = 8;
+
+    private final Pane panel;
+    private final Canvas canvas = new Canvas();
+    private final boolean arrows;
+    /* whether arrows are large enough on screen to be drawn */
+    private boolean arrowsLegible = true;
+    private final double vertexRadius;
+    private final boolean allowUserMove;
+    private final boolean vertexTooltips;
+    private final boolean edgeTooltips;
+
+    private final Set<SmartGraphVertexNode<?>> vertices = new LinkedHashSet<>();
+    private final Set<SmartGraphEdgeBase<?, ?>> edges = new LinkedHashSet<>();
+
+    /*
+    STYLES. Resolved style of each node, dropped when its style changes, and the
+    styles already resolved for each combination of classes and inline style.
+     */
+    private final Map<Node, Style> nodeStyles = new HashMap<>();
+    private final Map<String, Style> resolvedStyles = new HashMap<>();
+    private final Map<Node, InvalidationListener> restyleListeners = new HashMap<>();
+    private Style arrowStyle;
+    /* elements of each style, reused between frames */
+    private final Map<Style, List<Node>> batches = new LinkedHashMap<>();
+
+    private final InvalidationListener repaintListener = observable -> invalidate();
+    private boolean dirty = true;
+
+    /* hit-testing grid; null when it must be rebuilt */
+    private Map<Long, List<Node>> grid = null;
+    private final double[] geometry = new double[8];
+
+    /*
+    INTERACTION
+     */
+    private SmartGraphVertexNode<?> dragged = null;
+    private double dragDeltaX, dragDeltaY;
+    private Node hovered = null;
+    private final Tooltip tooltip = new Tooltip();
+
+    /**
+     * A style resolved from the stylesheet.
+     */
+    private static final class Style {
+
+        private final Paint fill;
+        private final Paint stroke;
+        private final double strokeWidth;
+        private final boolean strokeInside;
+        private final double[] dashes;
+        private final StrokeLineCap lineCap;
+        private final double opacity;
+        private final Font font;
+
+        Style(Shape probe) {
+            this.fill = probe.getFill();
+            this.stroke = probe.getStroke();
+            this.strokeWidth = probe.getStrokeWidth();
+            this.strokeInside = probe.getStrokeType() == StrokeType.INSIDE;
+            double[] dashes = new double[probe.getStrokeDashArray().size()];
+            for (int i = 0; i < dashes.length; i++) {
+                dashes[i] = probe.getStrokeDashArray().get(i);
+            }
+            this.dashes = dashes.length > 0 ? dashes : null;
+            this.lineCap = probe.getStrokeLineCap();
+            this.opacity = probe.getOpacity();
+            this.font = probe instanceof SmartLabel ? ((SmartLabel) probe).getFont() : null;
+        }
+    }
+
+    /**
+     * Creates the canvas of a panel, as its bottom child.
+     *
+     * @param panel panel to draw
+     * @param properties properties of the panel
+     */
+    SmartCanvasRenderer(Pane panel, SmartGraphProperties properties) {
+        this.panel = panel;
+        this.arrows = properties.getUseEdgeArrow();
+        this.vertexRadius = properties.getVertexRadius();
+        this.allowUserMove = properties.getVertexAllowUserMove();
+        this.vertexTooltips = properties.getUseVertexTooltip();
+        this.edgeTooltips = properties.getUseEdgeTooltip();
+
+        //the canvas follows the panel, without taking part in its preferred size
+        canvas.setManaged(false);
+        canvas.widthProperty().bind(panel.widthProperty());
+        canvas.heightProperty().bind(panel.heightProperty());
+        canvas.widthProperty().addListener(repaintListener);
+        canvas.heightProperty().addListener(repaintListener);
+        panel.getChildren().add(0, canvas);
+
+        enableMouseListeners();
+    }
+
+    /**
+     * Marks the canvas to be repainted on the next pulse.
+     */
+    void invalidate() {
+        if (!dirty) {
+            dirty = true;
+            Platform.requestNextPulse();
+        }
+        grid = null;
+    }
+
+    /**
+     * Repaints the canvas if anything changed since it was last painted;
+     * called by the panel once per pulse, after the edge geometry is updated.
+     */
+    void drawIfDirty() {
+        //styles can only be resolved once the panel is shown
+        if (dirty && canvas.getScene() != null) {
+            dirty = false;
+            draw();
+        }
+    }
+
+    /**
+     * Sets whether arrows are drawn, e.g., hidden when too small on screen.
+     *
+     * @param legible true to draw arrows; false, otherwise
+     */
+    void setArrowsLegible(boolean legible) {
+        if (arrowsLegible != legible) {
+            arrowsLegible = legible;
+            invalidate();
+        }
+    }
+
+    /**
+     * Starts drawing a vertex and its attached label.
+     *
+     * @param v vertex to draw
+     */
+    void addVertex(SmartGraphVertexNode<?> v) {
+        vertices.add(v);
+        v.centerXProperty().addListener(repaintListener);
+        v.centerYProperty().addListener(repaintListener);
+        v.radiusProperty().addListener(repaintListener);
+        v.visibleProperty().addListener(repaintListener);
+        watchStyle(v);
+        if (v.getAttachedLabel() != null) {
+            v.getAttachedLabel().textProperty().addListener(repaintListener);
+            v.getAttachedLabel().visibleProperty().addListener(repaintListener);
+            watchStyle(v.getAttachedLabel());
+        }
+        invalidate();
+    }
+
+    /**
+     * Stops drawing a vertex.
+     *
+     * @param v vertex no longer displayed
+     */
+    void removeVertex(SmartGraphVertexNode<?> v) {
+        if (!vertices.remove(v)) {
+            return;
+        }
+        v.centerXProperty().removeListener(repaintListener);
+        v.centerYProperty().removeListener(repaintListener);
+        v.radiusProperty().removeListener(repaintListener);
+        v.visibleProperty().removeListener(repaintListener);
+        unwatchStyle(v);
+        if (v.getAttachedLabel() != null) {
+            v.getAttachedLabel().textProperty().removeListener(repaintListener);
+            v.getAttachedLabel().visibleProperty().removeListener(repaintListener);
+            unwatchStyle(v.getAttachedLabel());
+        }
+        if (dragged == v) {
+            dragged = null;
+        }
+        invalidate();
+    }
+
+    /**
+     * Starts drawing an edge, its arrow and its attached label.
+     *
+     * @param e edge to draw
+     */
+    void addEdge(SmartGraphEdgeBase<?, ?> e) {
+        Shape shape = (Shape) e;
+        edges.add(e);
+        //the end points are bound to the vertices, but redirecting rebinds them
+        if (shape instanceof CubicCurve) {
+            ((CubicCurve) shape).startXProperty().addListener(repaintListener);
+            ((CubicCurve) shape).endXProperty().addListener(repaintListener);
+        } else if (shape instanceof Line) {
+            ((Line) shape).startXProperty().addListener(repaintListener);
+            ((Line) shape).endXProperty().addListener(repaintListener);
+        }
+        shape.visibleProperty().addListener(repaintListener);
+        watchStyle(shape);
+        if (e.getAttachedLabel() != null) {
+            e.getAttachedLabel().textProperty().addListener(repaintListener);
+            e.getAttachedLabel().visibleProperty().addListener(repaintListener);
+            watchStyle(e.getAttachedLabel());
+        }
+        invalidate();
+    }
+
+    /**
+     * Stops drawing an edge.
+     *
+     * @param e edge no longer displayed
+     */
+    void removeEdge(SmartGraphEdgeBase<?, ?> e) {
+        if (!edges.remove(e)) {
+            return;
+        }
+        Shape shape = (Shape) e;
+        if (shape instanceof CubicCurve) {
+            ((CubicCurve) shape).startXProperty().removeListener(repaintListener);
+            ((CubicCurve) shape).endXProperty().removeListener(repaintListener);
+        } else if (shape instanceof Line) {
+            ((Line) shape).startXProperty().removeListener(repaintListener);
+            ((Line) shape).endXProperty().removeListener(repaintListener);
+        }
+        shape.visibleProperty().removeListener(repaintListener);
+        unwatchStyle(shape);
+        if (e.getAttachedLabel() != null) {
+            e.getAttachedLabel().textProperty().removeListener(repaintListener);
+            e.getAttachedLabel().visibleProperty().removeListener(repaintListener);
+            unwatchStyle(e.getAttachedLabel());
+        }
+        invalidate();
+    }
+
+    /**
+     * Returns the topmost vertex or edge at a point of the panel.
+     *
+     * @param x x coordinate within the panel
+     * @param y y coordinate within the panel
+     * @return the vertex or edge node; null if none
+     */
+    Node pick(double x, double y) {
+        if (grid == null) {
+            buildGrid();
+        }
+        List<Node> candidates = grid.get(cell((long) Math.floor(x / CELL_SIZE), (long) Math.floor(y / CELL_SIZE)));
+        if (candidates == null) {
+            return null;
+        }
+
+        //vertices are drawn over edges, and later elements over earlier ones
+        Node edgeHit = null;
+        for (int i = candidates.size() - 1; i >= 0; i--) {
+            Node node = candidates.get(i);
+            if (node instanceof SmartGraphVertexNode) {
+                SmartGraphVertexNode<?> v = (SmartGraphVertexNode<?>) node;
+                double dx = x - v.getCenterX();
+                double dy = y - v.getCenterY();
+                if (dx * dx + dy * dy <= v.getRadius() * v.getRadius()) {
+                    return v;
+                }
+            } else if (edgeHit == null && hitsEdge((SmartGraphEdgeBase<?, ?>) node, x, y)) {
+                edgeHit = node;
+            }
+        }
+        return edgeHit;
+    }
+
+    /*
+    STYLES
+     */
+    private void watchStyle(Node node) {
+        InvalidationListener listener = observable -> {
+            nodeStyles.remove(node);
+            invalidate();
+        };
+        restyleListeners.put(node, listener);
+        node.getStyleClass().addListener(listener);
+        node.styleProperty().addListener(listener);
+    }
+
+    private void unwatchStyle(Node node) {
+        InvalidationListener listener = restyleListeners.remove(node);
+        if (listener != null) {
+            node.getStyleClass().removeListener(listener);
+            node.styleProperty().removeListener(listener);
+        }
+        nodeStyles.remove(node);
+    }
+
+    private Style style(Node node) {
+        Style style = nodeStyles.get(node);
+        if (style == null) {
+            String kind = node instanceof SmartGraphVertexNode ? "vertex"
+                    : node instanceof SmartLabel ? "label" : "edge";
+            String key = kind + node.getStyleClass() + node.getStyle();
+            style = resolvedStyles.get(key);
+            if (style == null) {
+                Shape probe = node instanceof SmartGraphVertexNode ? new Circle()
+                        : node instanceof SmartLabel ? new SmartLabel() : new CubicCurve();
+                probe.getStyleClass().setAll(node.getStyleClass());
+                probe.setStyle(node.getStyle());
+                style = resolve(probe);
+                resolvedStyles.put(key, style);
+            }
+            nodeStyles.put(node, style);
+        }
+        return style;
+    }
+
+    /* applies the stylesheet of the panel to a node added for an instant, never rendered */
+    private Style resolve(Shape probe) {
+        panel.getChildren().add(probe);
+        probe.applyCss();
+        Style style = new Style(probe);
+        panel.getChildren().remove(probe);
+        return style;
+    }
+
+    /*
+    DRAWING
+     */
+    private void draw() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+
+        //edges, then their arrows
+        batches.values().forEach(List::clear);
+        for (SmartGraphEdgeBase<?, ?> e : edges) {
+            if (((Node) e).isVisible()) {
+                batches.computeIfAbsent(style((Node) e), s -> new ArrayList<>()).add((Node) e);
+            }
+        }
+        for (Map.Entry<Style, List<Node>> batch : batches.entrySet()) {
+            if (batch.getValue().isEmpty() || batch.getKey().stroke == null) {
+                continue;
+            }
+            applyStroke(gc, batch.getKey());
+            gc.beginPath();
+            for (Node e : batch.getValue()) {
+                readGeometry((SmartGraphEdgeBase<?, ?>) e);
+                gc.moveTo(geometry[0], geometry[1]);
+                gc.bezierCurveTo(geometry[2], geometry[3], geometry[4], geometry[5], geometry[6], geometry[7]);
+            }
+            gc.stroke();
+        }
+
+        if (arrows && arrowsLegible) {
+            drawArrows(gc);
+        }
+
+        //vertices, filled then stroked
+        batches.values().forEach(List::clear);
+        for (SmartGraphVertexNode<?> v : vertices) {
+            if (v.isVisible()) {
+                batches.computeIfAbsent(style(v), s -> new ArrayList<>()).add(v);
+            }
+        }
+        for (Map.Entry<Style, List<Node>> batch : batches.entrySet()) {
+            Style style = batch.getKey();
+            if (batch.getValue().isEmpty()) {
+                continue;
+            }
+            gc.setGlobalAlpha(style.opacity);
+            if (style.fill != null) {
+                gc.setFill(style.fill);
+                gc.beginPath();
+                for (Node node : batch.getValue()) {
+                    SmartGraphVertexNode<?> v = (SmartGraphVertexNode<?>) node;
+                    circle(gc, v.getCenterX(), v.getCenterY(), v.getRadius());
+                }
+                gc.fill();
+            }
+            if (style.stroke != null && style.strokeWidth > 0) {
+                applyStroke(gc, style);
+                //an inside stroke stays within the radius
+                double inset = style.strokeInside ? style.strokeWidth / 2 : 0;
+                gc.beginPath();
+                for (Node node : batch.getValue()) {
+                    SmartGraphVertexNode<?> v = (SmartGraphVertexNode<?>) node;
+                    circle(gc, v.getCenterX(), v.getCenterY(), Math.max(0, v.getRadius() - inset));
+                }
+                gc.stroke();
+            }
+        }
+
+        drawLabels(gc);
+        gc.setGlobalAlpha(1);
+    }
+
+    /* arrows touching the vertex at the end point, as SmartArrow is drawn */
+    private void drawArrows(GraphicsContext gc) {
+        if (arrowStyle == null) {
+            arrowStyle = resolve(new SmartArrow());
+        }
+        if (arrowStyle.stroke == null) {
+            return;
+        }
+        applyStroke(gc, arrowStyle);
+        gc.beginPath();
+        for (SmartGraphEdgeBase<?, ?> e : edges) {
+            if (!((Node) e).isVisible()) {
+                continue;
+            }
+            readGeometry(e);
+            double dx = geometry[6] - geometry[4];
+            double dy = geometry[7] - geometry[5];
+            double length = Math.hypot(dx, dy);
+            if (length == 0) {
+                continue;
+            }
+            double ux = dx / length;
+            double uy = dy / length;
+            double tipX = geometry[6] - ux * vertexRadius;
+            double tipY = geometry[7] - uy * vertexRadius;
+            double size = SmartArrow.SIZE;
+            gc.moveTo(tipX, tipY);
+            gc.lineTo(tipX - size * ux - size * uy, tipY - size * uy + size * ux);
+            gc.moveTo(tipX, tipY);
+            gc.lineTo(tipX - size * ux + size * uy, tipY - size * uy - size * ux);
+        }
+        gc.stroke();
+    }
+
+    /* vertex labels end at the centre of their vertex; edge labels are centred on the curve */
+    private void drawLabels(GraphicsContext gc) {
+        batches.values().forEach(List::clear);
+        for (SmartGraphVertexNode<?> v : vertices) {
+            SmartLabel label = v.getAttachedLabel();
+            if (label != null && v.isVisible() && label.isVisible()) {
+                batches.computeIfAbsent(style(label), s -> new ArrayList<>()).add(v);
+            }
+        }
+        for (SmartGraphEdgeBase<?, ?> e : edges) {
+            SmartLabel label = e.getAttachedLabel();
+            if (label != null && ((Node) e).isVisible() && label.isVisible()) {
+                batches.computeIfAbsent(style(label), s -> new ArrayList<>()).add((Node) e);
+            }
+        }
+
+        gc.setTextBaseline(VPos.CENTER);
+        for (Map.Entry<Style, List<Node>> batch : batches.entrySet()) {
+            Style style = batch.getKey();
+            if (batch.getValue().isEmpty() || style.fill == null) {
+                continue;
+            }
+            gc.setGlobalAlpha(style.opacity);
+            gc.setFill(style.fill);
+            gc.setFont(style.font);
+            for (Node node : batch.getValue()) {
+                if (node instanceof SmartGraphVertexNode) {
+                    SmartGraphVertexNode<?> v = (SmartGraphVertexNode<?>) node;
+                    gc.setTextAlign(TextAlignment.RIGHT);
+                    gc.fillText(v.getAttachedLabel().getText(), v.getCenterX(), v.getCenterY());
+                } else {
+                    SmartGraphEdgeBase<?, ?> e = (SmartGraphEdgeBase<?, ?>) node;
+                    readGeometry(e);
+                    gc.setTextAlign(TextAlignment.CENTER);
+                    gc.fillText(e.getAttachedLabel().getText(), (geometry[2] + geometry[4]) / 2,
+                            (geometry[3] + geometry[5]) / 2);
+                }
+            }
+        }
+    }
+
+    private static void applyStroke(GraphicsContext gc, Style style) {
+        gc.setGlobalAlpha(style.opacity);
+        gc.setStroke(style.stroke);
+        gc.setLineWidth(style.strokeWidth);
+        gc.setLineDashes(style.dashes);
+        gc.setLineCap(style.lineCap);
+    }
+
+    private static void circle(GraphicsContext gc, double x, double y, double radius) {
+        gc.moveTo(x + radius, y);
+        gc.arc(x, y, radius, radius, 0, 360);
+    }
+
+    /*
+    Fills 'geometry' with the start, control and end points of an edge; a line has
+    its control points at its start.
+     */
+    private void readGeometry(SmartGraphEdgeBase<?, ?> e) {
+        if (e instanceof CubicCurve) {
+            CubicCurve curve = (CubicCurve) e;
+            geometry[0] = curve.getStartX();
+            geometry[1] = curve.getStartY();
+            geometry[2] = curve.getControlX1();
+            geometry[3] = curve.getControlY1();
+            geometry[4] = curve.getControlX2();
+            geometry[5] = curve.getControlY2();
+            geometry[6] = curve.getEndX();
+            geometry[7] = curve.getEndY();
+        } else {
+            Line line = (Line) e;
+            geometry[0] = geometry[2] = geometry[4] = line.getStartX();
+            geometry[1] = geometry[3] = geometry[5] = line.getStartY();
+            geometry[6] = line.getEndX();
+            geometry[7] = line.getEndY();
+        }
+    }
+
+    /*
+    HIT TESTING
+     */
+    private void buildGrid() {
+        grid = new HashMap<>();
+        for (SmartGraphEdgeBase<?, ?> e : edges) {
+            if (!((Node) e).isVisible()) {
+                continue;
+            }
+            //each segment of the flattened curve, widened by the tolerance
+            readGeometry(e);
+            double previousX = geometry[0], previousY = geometry[1];
+            for (int i = 1; i <= CURVE_SEGMENTS; i++) {
+                double t = (double) i / CURVE_SEGMENTS;
+                double x = bezier(geometry[0], geometry[2], geometry[4], geometry[6], t);
+                double y = bezier(geometry[1], geometry[3], geometry[5], geometry[7], t);
+                insert((Node) e, Math.min(previousX, x) - HIT_TOLERANCE, Math.min(previousY, y) - HIT_TOLERANCE,
+                        Math.max(previousX, x) + HIT_TOLERANCE, Math.max(previousY, y) + HIT_TOLERANCE);
+                previousX = x;
+                previousY = y;
+            }
+        }
+        for (SmartGraphVertexNode<?> v : vertices) {
+            if (v.isVisible()) {
+                double r = v.getRadius();
+                insert(v, v.getCenterX() - r, v.getCenterY() - r, v.getCenterX() + r, v.getCenterY() + r);
+            }
+        }
+    }
+
+    private void insert(Node node, double minX, double minY, double maxX, double maxY) {
+        long fromX = (long) Math.floor(minX / CELL_SIZE), toX = (long) Math.floor(maxX / CELL_SIZE);
+        long fromY = (long) Math.floor(minY / CELL_SIZE), toY = (long) Math.floor(maxY / CELL_SIZE);
+        for (long cx = fromX; cx <= toX; cx++) {
+            for (long cy = fromY; cy <= toY; cy++) {
+                List<Node> nodes = grid.computeIfAbsent(cell(cx, cy), c -> new ArrayList<>(4));
+                //consecutive segments of an edge often share a cell
+                if (nodes.isEmpty() || nodes.get(nodes.size() - 1) != node) {
+                    nodes.add(node);
+                }
+            }
+        }
+    }
+
+    private static long cell(long cx, long cy) {
+        return cx << 32 ^ (cy & 0xffffffffL);
+    }
+
+    private boolean hitsEdge(SmartGraphEdgeBase<?, ?> e, double x, double y) {
+        readGeometry(e);
+        double reach = style((Node) e).strokeWidth / 2 + HIT_TOLERANCE;
+        double previousX = geometry[0], previousY = geometry[1];
+        for (int i = 1; i <= CURVE_SEGMENTS; i++) {
+            double t = (double) i / CURVE_SEGMENTS;
+            double nextX = bezier(geometry[0], geometry[2], geometry[4], geometry[6], t);
+            double nextY = bezier(geometry[1], geometry[3], geometry[5], geometry[7], t);
+            if (distanceToSegment(x, y, previousX, previousY, nextX, nextY) <= reach) {
+                return true;
+            }
+            previousX = nextX;
+            previousY = nextY;
+        }
+        return false;
+    }
+
+    private static double bezier(double p0, double p1, double p2, double p3, double t) {
+        double u = 1 - t;
+        return u * u * u * p0 + 3 * u * u * t * p1 + 3 * u * t * t * p2 + t * t * t * p3;
+    }
+
+    private static double distanceToSegment(double x, double y, double x1, double y1, double x2, double y2) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, ((x - x1) * dx + (y - y1) * dy) / lengthSquared));
+        return Math.hypot(x - (x1 + t * dx), y - (y1 + t * dy));
+    }
+
+    /*
+    INTERACTION. Dragging vertices and tooltips, as the nodes do when in the scene.
+     */
+    private void enableMouseListeners() {
+        canvas.setOnMousePressed((MouseEvent mouseEvent) -> {
+            if (!allowUserMove || !mouseEvent.isPrimaryButtonDown()) {
+                return;
+            }
+            Node node = pick(mouseEvent.getX(), mouseEvent.getY());
+            if (node instanceof SmartGraphVertexNode) {
+                dragged = (SmartGraphVertexNode<?>) node;
+                dragDeltaX = dragged.getCenterX() - mouseEvent.getX();
+                dragDeltaY = dragged.getCenterY() - mouseEvent.getY();
+                dragged.setDragging(true);
+                canvas.setCursor(Cursor.MOVE);
+                mouseEvent.consume();
+            }
+        });
+
+        canvas.setOnMouseDragged((MouseEvent mouseEvent) -> {
+            if (dragged != null && mouseEvent.isPrimaryButtonDown()) {
+                dragged.moveByUser(mouseEvent.getX() + dragDeltaX, mouseEvent.getY() + dragDeltaY);
+                mouseEvent.consume();
+            }
+        });
+
+        canvas.setOnMouseReleased((MouseEvent mouseEvent) -> {
+            if (dragged != null) {
+                dragged.setDragging(false);
+                dragged = null;
+                canvas.setCursor(Cursor.HAND);
+                mouseEvent.consume();
+            }
+        });
+
+        canvas.setOnMouseMoved((MouseEvent mouseEvent) -> {
+            Node node = pick(mouseEvent.getX(), mouseEvent.getY());
+            if (node == hovered) {
+                return;
+            }
+            hovered = node;
+            canvas.setCursor(node instanceof SmartGraphVertexNode && allowUserMove ? Cursor.HAND : Cursor.DEFAULT);
+
+            String text = null;
+            if (node instanceof SmartGraphVertexNode && vertexTooltips) {
+                Object element = ((SmartGraphVertexNode<?>) node).getUnderlyingVertex().element();
+                text = element != null ? element.toString() : "<NULL>";
+            } else if (node instanceof SmartGraphEdgeBase && edgeTooltips) {
+                Object element = ((SmartGraphEdgeBase<?, ?>) node).getUnderlyingEdge().element();
+                text = element != null ? element.toString() : "<NULL>";
+            }
+            if (text != null) {
+                tooltip.setText(text);
+                Tooltip.install(canvas, tooltip);
+            } else {
+                Tooltip.uninstall(canvas, tooltip);
+            }
+        });
+    }
+}
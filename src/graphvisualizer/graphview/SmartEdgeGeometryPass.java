@@ -0,0 +1,61 @@
+package graphvisualizer.graphview;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import javafx.application.Platform;
+
+/**
+ * Recomputes the geometry of the curved edges whose end points moved, once
+ * per pulse.
+ * <br>
+ * A curve moved by both of its vertices, or by several layout steps within the
+ * same frame, is queued only once; the control points and the rotation of its
+ * arrow are then recomputed by {@link #run()}, before the panel is laid out.
+ * The queue is an array reused between frames, so that the pass does not
+ * allocate once it has grown to the number of edges that move together.
+ *
+ * @see SmartGraphEdgeCurve
+ */
+class SmartEdgeGeometryPass {
+
+    private SmartGraphEdgeCurve<?, ?>[] pending = new SmartGraphEdgeCurve<?, ?>[16];
+    private int count = 0;
+    private final Consumer<SmartGraphEdgeCurve<?, ?>> updated;
+
+    /**
+     * Creates an empty pass.
+     *
+     * @param updated called with each curve after its geometry is recomputed
+     */
+    SmartEdgeGeometryPass(Consumer<SmartGraphEdgeCurve<?, ?>> updated) {
+        this.updated = updated;
+    }
+
+    /**
+     * Queues a curve whose geometry must be recomputed on the next pulse.
+     * The curve is responsible for not being queued twice.
+     *
+     * @param curve curve whose end points moved
+     */
+    void add(SmartGraphEdgeCurve<?, ?> curve) {
+        if (count == pending.length) {
+            pending = Arrays.copyOf(pending, count * 2);
+        }
+        pending[count++] = curve;
+        if (count == 1) {
+            Platform.requestNextPulse();
+        }
+    }
+
+    /**
+     * Recomputes the geometry of every queued curve and empties the queue.
+     */
+    void run() {
+        for (int i = 0; i < count; i++) {
+            pending[i].updateGeometry();
+            updated.accept(pending[i]);
+            pending[i] = null;
+        }
+        count = 0;
+    }
+}
@@ -0,0 +1,77 @@
+package graphvisualizer.graphview;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Secondary index from the elements stored at vertices or edges to the nodes
+ * that represent them in a {@link SmartGraphPanel}.
+ * <br>
+ * Elements need not be unique, e.g., edge weights; {@link #get(java.lang.Object) }
+ * then returns the node that was indexed first and is still present. Nodes
+ * sharing an element with another one are kept apart, so that the common case
+ * of unique elements costs a single map entry per node.
+ *
+ * @param <T> type of the indexed elements
+ * @param <N> type of the nodes
+ *
+ * @see SmartGraphPanel
+ */
+class SmartElementIndex<T, N> {
+
+    private final Map<T, N> first = new HashMap<>();
+    /* further nodes of elements shared by more than one node, in insertion order */
+    private final Map<T, Set<N>> others = new HashMap<>();
+
+    /**
+     * Indexes <code>node</code> under <code>element</code>.
+     *
+     * @param element element stored at the node
+     * @param node    node
+     */
+    void put(T element, N node) {
+        N existing = first.putIfAbsent(element, node);
+        if (existing != null && existing != node) {
+            others.computeIfAbsent(element, e -> new LinkedHashSet<>()).add(node);
+        }
+    }
+
+    /**
+     * Removes <code>node</code> from the index.
+     *
+     * @param element element stored at the node
+     * @param node    node
+     */
+    void remove(T element, N node) {
+        Set<N> shared = others.get(element);
+
+        if (first.get(element) == node) {
+            if (shared == null) {
+                first.remove(element);
+                return;
+            }
+            //promote the next node with the same element
+            N next = shared.iterator().next();
+            shared.remove(next);
+            first.put(element, next);
+        } else if (shared != null) {
+            shared.remove(node);
+        }
+
+        if (shared != null && shared.isEmpty()) {
+            others.remove(element);
+        }
+    }
+
+    /**
+     * Returns a node that stores <code>element</code>.
+     *
+     * @param element element
+     * @return node; null if none
+     */
+    N get(T element) {
+        return first.get(element);
+    }
+}
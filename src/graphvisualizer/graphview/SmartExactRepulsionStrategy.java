@@ -0,0 +1,49 @@
+package graphvisualizer.graphview;
+
+import javafx.geometry.Point2D;
+
+/**
+ * Computes the repelling forces between every pair of vertices.
+ * <br>
+ * This is the reference behavior of the automatic layout and costs O(V^2) per
+ * layout iteration. The result is the same as summing
+ * {@link UtilitiesPoint2D#repellingForce(Point2D, Point2D, double) } over every
+ * other vertex, computed on primitives so that no objects are allocated.
+ *
+ * @see SmartRepulsionStrategy
+ */
+public class SmartExactRepulsionStrategy implements SmartRepulsionStrategy {
+
+    private int count;
+
+    @Override
+    public void prepare(double[] x, double[] y, int count) {
+        this.count = count;
+    }
+
+    @Override
+    public void accumulate(double[] x, double[] y, int from, int to, double force, double[] fx, double[] fy) {
+        for (int i = from; i < to; i++) {
+            double sumX = 0, sumY = 0;
+
+            for (int j = 0; j < count; j++) {
+                if (i == j) {
+                    continue; //NOP
+                }
+
+                double dx = x[i] - x[j];
+                double dy = y[i] - y[j];
+                double distance = Math.sqrt(dx * dx + dy * dy);
+                //coincident vertices do not repel each other, as with Point2D.normalize()
+                if (distance > 0) {
+                    double factor = UtilitiesPoint2D.repellingFunction(distance, force) / distance;
+                    sumX += dx * factor;
+                    sumY += dy * factor;
+                }
+            }
+
+            fx[i] += sumX;
+            fy[i] += sumY;
+        }
+    }
+}
@@ -55,4 +55,30 @@ public interface SmartGraphEdgeBase<E, V> extends SmartGraphEdge<E, V>, SmartLab
      */
     public SmartArrow getAttachedArrow();
     
+    /**
+     * Draws this edge from its inbound to its outbound vertex, i.e., with the
+     * attached arrow pointing against the direction of the underlying edge, or
+     * back. The underlying edge is not changed.
+     * 
+     * @param reversed  true to draw the edge reversed; false, otherwise
+     */
+    public void setReversed(boolean reversed);
+    
+    /**
+     * Draws this edge between other vertices, e.g., the ones standing for the
+     * collapsed groups of its own vertices. The underlying edge is not changed.
+     * 
+     * @param outbound  vertex to draw the edge from; null for its own
+     * @param inbound   vertex to draw the edge to; null for its own
+     */
+    public void redirect(SmartGraphVertexNode<?> outbound, SmartGraphVertexNode<?> inbound);
+    
+    /**
+     * Draws this edge as a straight line, e.g., when zoomed out too far for
+     * its curvature to be seen, or back as usual.
+     * 
+     * @param straight  true to draw the edge straight; false, otherwise
+     */
+    public void setStraight(boolean straight);
+    
 }
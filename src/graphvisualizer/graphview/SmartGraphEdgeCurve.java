@@ -23,8 +23,7 @@
  */
 package graphvisualizer.graphview;
 
-import javafx.beans.value.ObservableValue;
-import javafx.geometry.Point2D;
+import javafx.beans.InvalidationListener;
 import javafx.scene.shape.CubicCurve;
 import javafx.scene.transform.Rotate;
 import javafx.scene.transform.Translate;
@@ -60,8 +59,22 @@ public class SmartGraphEdgeCurve<E, V> extends CubicCurve implements SmartGraphE
 
     private SmartLabel attachedLabel = null;
     private SmartArrow attachedArrow = null;
+    private boolean reversed = false;
+    /* vertices the edge is drawn between: its own, unless redirected by a collapsed view */
+    private SmartGraphVertexNode<?> drawnInbound;
+    private SmartGraphVertexNode<?> drawnOutbound;
 
     private double randomAngleFactor = 0;
+    private boolean straight = false;
+
+    /*
+    GEOMETRY. Control points and arrow rotation are recomputed by the pass, at most once
+    per pulse, after the end points moved; immediately if there is no pass.
+     */
+    private SmartEdgeGeometryPass geometryPass = null;
+    private boolean geometryDirty = false;
+    private final InvalidationListener geometryListener = observable -> invalidateGeometry();
+    private Rotate arrowRotation = null;
 
     public SmartGraphEdgeCurve(Edge<E, V> edge, SmartGraphVertexNode inbound, SmartGraphVertexNode outbound) {
         this(edge, inbound, outbound, 0);
@@ -70,16 +83,15 @@ public class SmartGraphEdgeCurve<E, V> extends CubicCurve implements SmartGraphE
     public SmartGraphEdgeCurve(Edge<E, V> edge, SmartGraphVertexNode inbound, SmartGraphVertexNode outbound, int edgeIndex) {
         this.inbound = inbound;
         this.outbound = outbound;
+        this.drawnInbound = inbound;
+        this.drawnOutbound = outbound;
 
         this.underlyingEdge = edge;
 
         getStyleClass().add("edge");
 
         //bind start and end positions to vertices centers through properties
-        this.startXProperty().bind(outbound.centerXProperty());
-        this.startYProperty().bind(outbound.centerYProperty());
-        this.endXProperty().bind(inbound.centerXProperty());
-        this.endYProperty().bind(inbound.centerYProperty());
+        bindEndpoints(outbound, inbound);
 
         //TODO: improve this solution taking into account even indices, etc.
         randomAngleFactor = edgeIndex == 0 ? 0 : 1.0 / edgeIndex; //Math.random();
@@ -95,70 +107,113 @@ public class SmartGraphEdgeCurve<E, V> extends CubicCurve implements SmartGraphE
         getStyleClass().add(cssClass);
     }
     
-    private void update() {                
-        if (inbound == outbound) {
+    /**
+     * Recomputes the control points and the arrow rotation from the current
+     * end points; called by the geometry pass.
+     */
+    void updateGeometry() {
+        geometryDirty = false;
+        update();
+    }
+
+    /**
+     * Sets the pass that recomputes the geometry of this edge once per pulse,
+     * instead of on every change of its end points.
+     *
+     * @param pass geometry pass; null to recompute immediately
+     */
+    void setGeometryPass(SmartEdgeGeometryPass pass) {
+        this.geometryPass = pass;
+        invalidateGeometry();
+    }
+
+    private void invalidateGeometry() {
+        if (geometryPass == null) {
+            update();
+        } else if (!geometryDirty) {
+            geometryDirty = true;
+            geometryPass.add(this);
+        }
+    }
+
+    /* reads the end points, so that the listener is notified of their next change */
+    private void update() {
+        double startX = getStartX();
+        double startY = getStartY();
+        double endX = getEndX();
+        double endY = getEndY();
+
+        if (drawnInbound == drawnOutbound) {
             /* Make a loop using the control points proportional to the vertex radius */
             
             //TODO: take into account several "self-loops" with randomAngleFactor
-            double midpointX1 = outbound.getCenterX() - inbound.getRadius() * 5;
-            double midpointY1 = outbound.getCenterY() - inbound.getRadius() * 2;
+            double midpointX1 = drawnOutbound.getCenterX() - drawnInbound.getRadius() * 5;
+            double midpointY1 = drawnOutbound.getCenterY() - drawnInbound.getRadius() * 2;
             
-            double midpointX2 = outbound.getCenterX() + inbound.getRadius() * 5;
-            double midpointY2 = outbound.getCenterY() - inbound.getRadius() * 2;
+            double midpointX2 = drawnOutbound.getCenterX() + drawnInbound.getRadius() * 5;
+            double midpointY2 = drawnOutbound.getCenterY() - drawnInbound.getRadius() * 2;
             
             setControlX1(midpointX1);
             setControlY1(midpointY1);
             setControlX2(midpointX2);
             setControlY2(midpointY2);
             
+        } else if (straight) {
+            /* Both control points halfway, so that the arrow still follows the line */
+            double midpointX = (startX + endX) / 2;
+            double midpointY = (startY + endY) / 2;
+
+            setControlX1(midpointX);
+            setControlY1(midpointY);
+            setControlX2(midpointX);
+            setControlY2(midpointY);
+
         } else {          
             /* Make a curved edge. The curve is proportional to the distance  */
-            double midpointX = (outbound.getCenterX() + inbound.getCenterX()) / 2;
-            double midpointY = (outbound.getCenterY() + inbound.getCenterY()) / 2;
-
-            Point2D midpoint = new Point2D(midpointX, midpointY);
+            double midpointX = (drawnOutbound.getCenterX() + drawnInbound.getCenterX()) / 2;
+            double midpointY = (drawnOutbound.getCenterY() + drawnInbound.getCenterY()) / 2;
 
-            Point2D startpoint = new Point2D(inbound.getCenterX(), inbound.getCenterY());
-            Point2D endpoint = new Point2D(outbound.getCenterX(), outbound.getCenterY());
+            double pivotX = drawnInbound.getCenterX();
+            double pivotY = drawnInbound.getCenterY();
 
             //TODO: improvement lower max_angle_placement according to distance between vertices
             double angle = MAX_EDGE_CURVE_ANGLE;
 
-            double distance = startpoint.distance(endpoint);
+            double distance = Math.hypot(drawnOutbound.getCenterX() - pivotX, drawnOutbound.getCenterY() - pivotY);
 
             //TODO: remove "magic number" 1500 and provide a distance function for the 
             //decreasing angle with distance
             angle = angle - (distance / 1500 * angle);
 
-            midpoint = UtilitiesPoint2D.rotate(midpoint,
-                    startpoint,
-                    (-angle) + randomAngleFactor * (angle - (-angle)));
-
-            setControlX1(midpoint.getX());
-            setControlY1(midpoint.getY());
-            setControlX2(midpoint.getX());
-            setControlY2(midpoint.getY());
+            //rotates the midpoint around the pivot, as UtilitiesPoint2D.rotate without allocating
+            double radians = Math.toRadians((-angle) + randomAngleFactor * (angle - (-angle)));
+            double sin = Math.sin(radians);
+            double cos = Math.cos(radians);
+            double dx = midpointX - pivotX;
+            double dy = midpointY - pivotY;
+            double controlX = pivotX + dx * cos - dy * sin;
+            double controlY = pivotY + dx * sin + dy * cos;
+
+            setControlX1(controlX);
+            setControlY1(controlY);
+            setControlX2(controlX);
+            setControlY2(controlY);
         }
 
+        if (arrowRotation != null) {
+            arrowRotation.setAngle(Math.toDegrees(Math.atan2(endY - getControlY2(), endX - getControlX2())));
+        }
     }
 
     /*
-    With a curved edge we need to continuously update the control points.
-    TODO: Maybe we can achieve this solely with bindings.
+    With a curved edge we need to continuously update the control points, once the
+    end points moved.
     */
     private void enableListeners() {
-        this.startXProperty().addListener((ObservableValue<? extends Number> ov, Number t, Number t1) -> {
-            update();
-        });
-        this.startYProperty().addListener((ObservableValue<? extends Number> ov, Number t, Number t1) -> {
-            update();
-        });
-        this.endXProperty().addListener((ObservableValue<? extends Number> ov, Number t, Number t1) -> {
-            update();
-        });
-        this.endYProperty().addListener((ObservableValue<? extends Number> ov, Number t, Number t1) -> {
-            update();
-        });
+        this.startXProperty().addListener(geometryListener);
+        this.startYProperty().addListener(geometryListener);
+        this.endXProperty().addListener(geometryListener);
+        this.endYProperty().addListener(geometryListener);
     }
 
     @Override
@@ -186,14 +241,12 @@ public class SmartGraphEdgeCurve<E, V> extends CubicCurve implements SmartGraphE
         arrow.translateXProperty().bind(endXProperty());
         arrow.translateYProperty().bind(endYProperty());
 
-        /* rotate arrow around itself based on this line's angle */
+        /* rotate arrow around itself based on this line's angle, set with the control points */
         Rotate rotation = new Rotate();
         rotation.pivotXProperty().bind(translateXProperty());
         rotation.pivotYProperty().bind(translateYProperty());
-        rotation.angleProperty().bind(UtilitiesBindings.toDegrees(
-                UtilitiesBindings.atan2(endYProperty().subtract(controlY2Property()),
-                        endXProperty().subtract(controlX2Property()))
-        ));
+        arrowRotation = rotation;
+        update();
 
         arrow.getTransforms().add(rotation);
 
@@ -206,4 +259,45 @@ public class SmartGraphEdgeCurve<E, V> extends CubicCurve implements SmartGraphE
     public SmartArrow getAttachedArrow() {
         return this.attachedArrow;
     }
+
+    @Override
+    public void setReversed(boolean reversed) {
+        if (this.reversed == reversed) {
+            return;
+        }
+        this.reversed = reversed;
+        bindEndpoints();
+    }
+
+    @Override
+    public void redirect(SmartGraphVertexNode<?> outbound, SmartGraphVertexNode<?> inbound) {
+        drawnOutbound = outbound != null ? outbound : this.outbound;
+        drawnInbound = inbound != null ? inbound : this.inbound;
+        bindEndpoints();
+    }
+
+    @Override
+    public void setStraight(boolean straight) {
+        if (this.straight == straight) {
+            return;
+        }
+        this.straight = straight;
+        invalidateGeometry();
+    }
+
+    private void bindEndpoints() {
+        //the arrow follows the end point
+        if (reversed) {
+            bindEndpoints(drawnInbound, drawnOutbound);
+        } else {
+            bindEndpoints(drawnOutbound, drawnInbound);
+        }
+    }
+
+    private void bindEndpoints(SmartGraphVertexNode<?> start, SmartGraphVertexNode<?> end) {
+        this.startXProperty().bind(start.centerXProperty());
+        this.startYProperty().bind(start.centerYProperty());
+        this.endXProperty().bind(end.centerXProperty());
+        this.endYProperty().bind(end.centerYProperty());
+    }
 }
@@ -46,6 +46,10 @@ public class SmartGraphEdgeLine<E, V> extends Line implements SmartGraphEdgeBase
     
     private SmartLabel attachedLabel = null;
     private SmartArrow attachedArrow = null;
+    private boolean reversed = false;
+    /* vertices the edge is drawn between: its own, unless redirected by a collapsed view */
+    private SmartGraphVertexNode<?> drawnInbound;
+    private SmartGraphVertexNode<?> drawnOutbound;
     
     public SmartGraphEdgeLine(Edge<E, V> edge, SmartGraphVertexNode inbound, SmartGraphVertexNode outbound) {
         if( inbound == null || outbound == null) {
@@ -54,16 +58,15 @@ public class SmartGraphEdgeLine<E, V> extends Line implements SmartGraphEdgeBase
         
         this.inbound = inbound;
         this.outbound = outbound;
+        this.drawnInbound = inbound;
+        this.drawnOutbound = outbound;
         
         this.underlyingEdge = edge;
         
         getStyleClass().add("edge");
         
         //bind start and end positions to vertices centers through properties
-        this.startXProperty().bind(outbound.centerXProperty());
-        this.startYProperty().bind(outbound.centerYProperty());
-        this.endXProperty().bind(inbound.centerXProperty());
-        this.endYProperty().bind(inbound.centerYProperty());
+        bindEndpoints(outbound, inbound);
     }
     
     @Override
@@ -120,5 +123,42 @@ public class SmartGraphEdgeLine<E, V> extends Line implements SmartGraphEdgeBase
     public SmartArrow getAttachedArrow() {
         return this.attachedArrow;
     }
+
+    @Override
+    public void setReversed(boolean reversed) {
+        if (this.reversed == reversed) {
+            return;
+        }
+        this.reversed = reversed;
+        bindEndpoints();
+    }
+
+    @Override
+    public void redirect(SmartGraphVertexNode<?> outbound, SmartGraphVertexNode<?> inbound) {
+        drawnOutbound = outbound != null ? outbound : this.outbound;
+        drawnInbound = inbound != null ? inbound : this.inbound;
+        bindEndpoints();
+    }
+
+    @Override
+    public void setStraight(boolean straight) {
+        //always straight
+    }
+
+    private void bindEndpoints() {
+        //the arrow follows the end point
+        if (reversed) {
+            bindEndpoints(drawnInbound, drawnOutbound);
+        } else {
+            bindEndpoints(drawnOutbound, drawnInbound);
+        }
+    }
+
+    private void bindEndpoints(SmartGraphVertexNode<?> start, SmartGraphVertexNode<?> end) {
+        this.startXProperty().bind(start.centerXProperty());
+        this.startYProperty().bind(start.centerYProperty());
+        this.endXProperty().bind(end.centerXProperty());
+        this.endYProperty().bind(end.centerYProperty());
+    }
     
 }
@@ -31,7 +31,9 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
 import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.ReadOnlyProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.geometry.BoundingBox;
 import javafx.geometry.Bounds;
@@ -41,18 +43,21 @@ import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.Pane;
 import javafx.scene.text.Text;
+import javafx.scene.transform.Transform;
 import javafx.geometry.Point2D;
 import javafx.scene.Scene;
 import graphvisualizer.graph.Graph;
+import graphvisualizer.graph.GraphChangeListener;
+import graphvisualizer.graph.ObservableGraph;
 import graphvisualizer.graph.Vertex;
 import graphvisualizer.graph.Edge;
 import static graphvisualizer.graphview.UtilitiesJavaFX.pick;
-import static graphvisualizer.graphview.UtilitiesPoint2D.attractiveForce;
-import static graphvisualizer.graphview.UtilitiesPoint2D.repellingForce;
 import java.net.URI;
-import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.FutureTask;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * JavaFX {@link Pane} that is capable of plotting a {@link Graph}.
@@ -61,10 +66,16 @@ import java.util.concurrent.FutureTask;
  * <br>
  * Whenever changes to the underlying graph are made, you should call
  * {@link #update()} to force the rendering of any new elements and, also, the
- * removal of others, if applicable.
+ * removal of others, if applicable. If the graph is an {@link ObservableGraph},
+ * each update only processes the changes reported since the previous one;
+ * otherwise, the whole graph is compared with the displayed elements.
  * <br>
  * Vertices can be dragged by the user, if configured to do so. Consequently, 
  * any connected edges will also adjust automatically to the new vertex positioning.
+ * <br>
+ * For large graphs, the properties can enable drawing the whole graph on a
+ * single canvas instead of adding a node per vertex, edge, arrow and label to
+ * the scene graph.
  *
  * @param <V> Type of element stored at a vertex
  * @param <E> Type of element stored at an edge
@@ -85,9 +96,50 @@ public class SmartGraphPanel<V, E> extends Pane {
     private final SmartPlacementStrategy placementStrategy;
     private final Map<Vertex<V>, SmartGraphVertexNode<V>> vertexNodes;
     private final Map<Edge<E, V>, SmartGraphEdgeBase> edgeNodes;
+    /* element-keyed lookups, kept in sync with vertexNodes and edgeNodes */
+    private final SmartElementIndex<V, SmartGraphVertexNode<V>> vertexElementIndex = new SmartElementIndex<>();
+    private final SmartElementIndex<E, SmartGraphEdgeBase> edgeElementIndex = new SmartElementIndex<>();
     private final Map<Tuple<SmartGraphVertexNode>, Integer> placedEdges = new HashMap<>();
     private boolean initialized = false;
     private final boolean edgesWithArrows;
+    /* draws the graph instead of adding its nodes to the scene graph; null if not enabled */
+    private final SmartCanvasRenderer canvasRenderer;
+    /* whether edges are drawn reversed; only changed on the JavaFX thread */
+    private volatile boolean transposedView = false;
+    /*
+    COLLAPSED VIEW. Text of the vertices standing for a group, hidden vertices and
+    the edges that were redirected or hidden; only changed on the JavaFX thread.
+     */
+    private final Map<SmartGraphVertexNode<V>, String> collapsedLabels = new HashMap<>();
+    private final Set<SmartGraphVertexNode<V>> collapsedVertices = new HashSet<>();
+    private final Set<SmartGraphEdgeBase> collapsedEdges = new HashSet<>();
+    private volatile boolean collapsedView = false;
+    /*
+    VIEWPORT. Vertices and edges hidden by the collapsed view or for being outside
+    the visible part of the panel, and the level of detail for its current scale;
+    recomputed at most once per pulse: for every element after the panel moved or
+    was zoomed, otherwise only for the elements that moved.
+     */
+    private final Set<SmartLabelledNode> hiddenNodes = new HashSet<>();
+    private final Set<SmartLabelledNode> culledNodes = new HashSet<>();
+    private final Set<SmartLabelledNode> movedNodes = new HashSet<>();
+    private final InvalidationListener vertexMovedListener =
+            observable -> movedNodes.add((SmartLabelledNode) ((ReadOnlyProperty<?>) observable).getBean());
+    private final boolean viewportCulling;
+    private final double labelMinSize;
+    private final double arrowMinSize;
+    private final double curveMinScale;
+    private double viewScale = 1;
+    private boolean straightEdges = false;
+    private boolean viewportDirty = true;
+    /* refresh requested by update() calls since the last pulse; null if none */
+    private final AtomicReference<CompletableFuture<Void>> pendingUpdate = new AtomicReference<>();
+    /* curves whose end points moved, recomputed once per pulse */
+    private final SmartEdgeGeometryPass geometryPass = new SmartEdgeGeometryPass(movedNodes::add);
+    private final Runnable framePulse = this::runFramePulse;
+    /* changes reported by an observable graph until the next update; null otherwise */
+    private final Queue<GraphChange> graphChanges;
+    private final GraphChangeLog graphChangeLog;
     /*
     INTERACTION WITH VERTICES AND EDGES
      */
@@ -102,6 +154,12 @@ public class SmartGraphPanel<V, E> extends Pane {
     private final double repulsionForce;
     private final double attractionForce;
     private final double attractionScale;
+    private SmartRepulsionStrategy repulsionStrategy;
+    private final SmartLayoutWorker layoutWorker;
+    private final SmartLayoutScheduler layoutScheduler;
+    private final SmartLayoutState layoutState = new SmartLayoutState();
+    /* incremented whenever vertices or edges are plotted or removed */
+    private int topologyVersion = 0;
 
     /**
      * Constructs a visualization of the graph referenced by
@@ -176,17 +234,43 @@ public class SmartGraphPanel<V, E> extends Pane {
         this.placementStrategy = placementStrategy != null ? placementStrategy : new SmartRandomPlacementStrategy();
 
         this.edgesWithArrows = this.graphProperties.getUseEdgeArrow();
+        this.viewportCulling = this.graphProperties.getUseViewportCulling();
+        this.labelMinSize = this.graphProperties.getLabelMinSize();
+        this.arrowMinSize = this.graphProperties.getArrowMinSize();
+        this.curveMinScale = this.graphProperties.getCurveMinScale();
 
         this.repulsionForce = this.graphProperties.getRepulsionForce();
         this.attractionForce = this.graphProperties.getAttractionForce();
         this.attractionScale = this.graphProperties.getAttractionScale();
+        this.repulsionStrategy = createRepulsionStrategy(this.graphProperties);
+        //the worker gets its own strategy instance, since strategies keep per-iteration state
+        this.layoutWorker = this.graphProperties.getUseLayoutWorker()
+                ? new SmartLayoutWorker(ForkJoinPool.commonPool(), createRepulsionStrategy(this.graphProperties),
+                        repulsionForce, attractionForce, attractionScale)
+                : null;
+        this.layoutScheduler = new SmartLayoutScheduler(this.graphProperties.getLayoutFrameBudget(),
+                this.graphProperties.getLayoutMaxIterations(), this.graphProperties.getLayoutStableThreshold());
 
         vertexNodes = new HashMap<>();
         edgeNodes = new HashMap<>(); 
 
+        //listen before plotting, so that no change is missed; repeated ones are ignored
+        if (theGraph instanceof ObservableGraph) {
+            this.graphChanges = new ConcurrentLinkedQueue<>();
+            this.graphChangeLog = new GraphChangeLog();
+            ((ObservableGraph<V, E>) theGraph).addGraphChangeListener(graphChangeLog);
+        } else {
+            this.graphChanges = null;
+            this.graphChangeLog = null;
+        }
+
         //set stylesheet and class
         loadStylesheet(cssFile);
 
+        this.canvasRenderer = this.graphProperties.getUseCanvasRenderer()
+                ? new SmartCanvasRenderer(this, this.graphProperties)
+                : null;
+
         initNodes();
 
         enableDoubleClickListener();
@@ -196,28 +280,91 @@ public class SmartGraphPanel<V, E> extends Pane {
 
             @Override
             public void handle(long now) {
-                runLayoutIteration();
+                if (layoutWorker != null) {
+                    runLayoutWorker();
+                } else {
+                    runLayoutIteration();
+                }
+
+                //nothing left to do until the graph or a vertex position changes
+                if (layoutScheduler.isStable()) {
+                    timer.stop();
+                }
             }
         };
         
         this.automaticLayoutProperty = new SimpleBooleanProperty(false);
         this.automaticLayoutProperty.addListener((observable, oldValue, newValue) -> {
             if (newValue) {
-                timer.start();
+                wakeLayout();
             } else {
                 timer.stop();
+                if (layoutWorker != null) {
+                    layoutWorker.cancel();
+                }
+            }
+        });
+
+        //vertices dragged by the user or a resized panel may unsettle the layout
+        addEventFilter(MouseEvent.MOUSE_DRAGGED, event -> wakeLayout());
+        widthProperty().addListener((observable, oldValue, newValue) -> {
+            wakeLayout();
+            invalidateViewport();
+        });
+        heightProperty().addListener((observable, oldValue, newValue) -> {
+            wakeLayout();
+            invalidateViewport();
+        });
+
+        //zooming or panning any container moves the panel on screen
+        localToSceneTransformProperty().addListener((observable, oldValue, newValue) -> invalidateViewport());
+        sceneProperty().addListener((observable, oldScene, newScene) -> {
+            if (oldScene != null) {
+                oldScene.removePreLayoutPulseListener(framePulse);
+            }
+            if (newScene != null) {
+                newScene.addPreLayoutPulseListener(framePulse);
+                invalidateViewport();
             }
         });
                 
     }
 
     private synchronized void runLayoutIteration() {
-        for (int i = 0; i < 20; i++) {
-            resetForces();
+        long start = System.nanoTime();
+        int iterations = layoutScheduler.getIterations();
+
+        layoutState.sync(vertexNodes.values(), topologyVersion);
+        for (int i = 0; i < iterations; i++) {
             computeForces();
             updateForces();
         }
-        applyForces();
+        double maxDisplacement = applyForces();
+
+        layoutScheduler.frameCompleted(iterations, System.nanoTime() - start, maxDisplacement);
+    }
+
+    /*
+    Only applies finished frames on the JavaFX thread; forces are computed by the worker.
+     */
+    private synchronized void runLayoutWorker() {
+        if (layoutWorker.applyFinished()) {
+            layoutScheduler.frameCompleted(layoutWorker.getLastIterations(),
+                    layoutWorker.getLastComputeNanos(), layoutWorker.getLastMaxDisplacement());
+        }
+        if (!layoutScheduler.isStable()) {
+            layoutWorker.submit(vertexNodes.values(), topologyVersion, layoutScheduler.getIterations());
+        }
+    }
+
+    /*
+    Resumes the automatic layout, if enabled, after it was suspended for being stable.
+     */
+    private void wakeLayout() {
+        layoutScheduler.wake();
+        if (automaticLayoutProperty.get()) {
+            timer.start();
+        }
     }
 
     /**
@@ -280,15 +427,60 @@ public class SmartGraphPanel<V, E> extends Pane {
         automaticLayoutProperty.set(value);
     }
 
+    /**
+     * Sets the strategy used to compute the repelling forces of the automatic
+     * layout, replacing the one configured through the properties.
+     * <p>
+     * The same instance is used by the background layout worker, if enabled, so
+     * it must not be shared with other panels.
+     * 
+     * @param strategy  repulsion strategy
+     */
+    public synchronized void setRepulsionStrategy(SmartRepulsionStrategy strategy) {
+        if (strategy == null) {
+            throw new IllegalArgumentException("The repulsion strategy cannot be null.");
+        }
+        this.repulsionStrategy = strategy;
+        if (layoutWorker != null) {
+            layoutWorker.setRepulsionStrategy(strategy);
+        }
+    }
+
+    private static SmartRepulsionStrategy createRepulsionStrategy(SmartGraphProperties properties) {
+        String strategy = properties.getRepulsionStrategy();
+        if (strategy.equalsIgnoreCase("barnes-hut")) {
+            return new SmartBarnesHutRepulsionStrategy(properties.getBarnesHutTheta());
+        }
+        if (!strategy.equalsIgnoreCase("exact")) {
+            String msg = String.format("Unknown repulsion strategy '%s'. Using exact.", strategy);
+            Logger.getLogger(SmartGraphPanel.class.getName()).log(Level.WARNING, msg);
+        }
+        return new SmartExactRepulsionStrategy();
+    }
+
+    /**
+     * Stops following the changes of the underlying graph and the automatic
+     * layout, so that the graph no longer keeps this panel alive. The panel
+     * should not be updated afterwards.
+     */
+    public void detach() {
+        if (graphChangeLog != null) {
+            ((ObservableGraph<V, E>) theGraph).removeGraphChangeListener(graphChangeLog);
+            graphChanges.clear();
+        }
+        automaticLayoutProperty.set(false);
+    }
+
     /**
      * Forces a refresh of the visualization based on current state of the
      * underlying graph, immediately returning to the caller.
      * 
-     * This method invokes the refresh in the graphical
-     * thread through Platform.runLater(), so its not guaranteed that the visualization is in sync
+     * This method schedules the refresh on the next pulse of the graphical
+     * thread, so its not guaranteed that the visualization is in sync
      * immediately after this method finishes. That is, this method
      * immediately returns to the caller without waiting for the update to the
-     * visualization.
+     * visualization. Any number of calls before that pulse are served by a
+     * single refresh.
      * <p>
      * New vertices will be added close to adjacent ones or randomly for
      * isolated vertices.
@@ -303,10 +495,7 @@ public class SmartGraphPanel<V, E> extends Pane {
         }
 
         //this will be called from a non-javafx thread, so this must be guaranteed to run of the graphics thread
-        Platform.runLater(() -> {
-            updateNodes();
-        });
-
+        scheduleUpdate();
     }
     
     /**
@@ -315,7 +504,9 @@ public class SmartGraphPanel<V, E> extends Pane {
      * 
      * Use this variant only when necessary, e.g., need to style an element
      * immediately after adding it to the underlying graph. Otherwise, use
-     * {@link #update() } instead for performance sake.
+     * {@link #update() } instead for performance sake. The caller waits for the
+     * refresh already scheduled for the next pulse, if any, which is run
+     * immediately when called from the graphical thread.
      * <p>
      * New vertices will be added close to adjacent ones or randomly for
      * isolated vertices.
@@ -329,17 +520,14 @@ public class SmartGraphPanel<V, E> extends Pane {
             throw new IllegalStateException("You must call init() method before any updates.");
         }
         
-        final FutureTask update = new FutureTask(new Callable<Boolean>() {
-            @Override
-            public Boolean call() throws Exception {
-                updateNodes();
-                return true;
-            }
-        });
+        if (Platform.isFxApplicationThread()) {
+            //waiting for the next pulse would block it
+            scheduleUpdate();
+            runPendingUpdate();
+            return;
+        }
 
-        //this will be called from a non-javafx thread, so this must be guaranteed to run of the graphics thread
-        Platform.runLater(update);
-        
+        CompletableFuture<Void> update = scheduleUpdate();
         try {
             //wait for completion
             update.get();
@@ -349,10 +537,56 @@ public class SmartGraphPanel<V, E> extends Pane {
 
     }
 
+    /*
+    Returns the refresh scheduled for the next pulse, scheduling it if there is none.
+     */
+    private CompletableFuture<Void> scheduleUpdate() {
+        while (true) {
+            CompletableFuture<Void> update = pendingUpdate.get();
+            if (update != null) {
+                return update;
+            }
+            update = new CompletableFuture<>();
+            if (pendingUpdate.compareAndSet(null, update)) {
+                Platform.requestNextPulse();
+                return update;
+            }
+        }
+    }
+
+    /*
+    Runs the scheduled refresh, if any; changes notified after it was taken are
+    left to the next one.
+     */
+    private void runPendingUpdate() {
+        CompletableFuture<Void> update = pendingUpdate.getAndSet(null);
+        if (update == null) {
+            return;
+        }
+        try {
+            updateNodes();
+            update.complete(null);
+        } catch (RuntimeException ex) {
+            update.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
     private synchronized void updateNodes() {
-        removeNodes();
-        insertNodes();
-        updateLabels();
+        int version = topologyVersion;
+
+        if (graphChanges != null) {
+            applyGraphChanges();
+        } else {
+            removeNodes();
+            insertNodes(unplottedVertices(), unplottedEdges());
+            updateLabels();
+        }
+
+        if (version != topologyVersion) {
+            wakeLayout();
+            invalidateViewport();
+        }
     }
 
     /*
@@ -391,7 +625,7 @@ public class SmartGraphPanel<V, E> extends Pane {
 
         /* create edges graphical representations between existing vertices */
         //this is used to guarantee that no duplicate edges are ever inserted
-        List<Edge<E, V>> edgesToPlace = listOfEdges();
+        Set<Edge<E, V>> edgesToPlace = new HashSet<>(theGraph.edges());
 
         for (Vertex<V> vertex : vertexNodes.keySet()) {
 
@@ -417,7 +651,8 @@ public class SmartGraphPanel<V, E> extends Pane {
                 /* Track Edges already placed */
                 addEdge(graphEdge, edge);
 
-                if (this.edgesWithArrows) {
+                //the canvas draws arrows itself
+                if (this.edgesWithArrows && canvasRenderer == null) {
                     SmartArrow arrow = new SmartArrow();
                     graphEdge.attachArrow(arrow);
                     this.getChildren().add(arrow);
@@ -450,16 +685,7 @@ public class SmartGraphPanel<V, E> extends Pane {
 
         SmartGraphEdgeBase graphEdge;
         graphEdge = new SmartGraphEdgeCurve(edge, graphVertexInbound, graphVertexOutbound, 4);
-
-        /*
-        if (getTotalEdgesBetween(graphVertexInbound.getUnderlyingVertex(), graphVertexOutbound.getUnderlyingVertex()) >= 1
-                || graphVertexInbound == graphVertexOutbound) {
-            graphEdge = new SmartGraphEdgeCurve(edge, graphVertexInbound, graphVertexOutbound, new Random().nextInt(30) + 1);
-            graphEdge = new SmartGraphEdgeCurve(edge, graphVertexInbound, graphVertexOutbound, 30);
-        } else {
-            graphEdge = new SmartGraphEdgeLine<>(edge, graphVertexInbound, graphVertexOutbound);
-        }
-        */
+        ((SmartGraphEdgeCurve) graphEdge).setGeometryPass(geometryPass);
 
         placedEdges.put(new Tuple(graphVertexInbound, graphVertexOutbound), ++edgeIndex);
 
@@ -467,13 +693,21 @@ public class SmartGraphPanel<V, E> extends Pane {
     }
 
     private void addVertex(SmartGraphVertexNode<V> v) {
-        this.getChildren().add(v);
+        v.centerXProperty().addListener(vertexMovedListener);
+        v.centerYProperty().addListener(vertexMovedListener);
+        if (canvasRenderer == null) {
+            this.getChildren().add(v);
+        } else {
+            v.setPlotArea(this);
+        }
+        vertexElementIndex.put(v.getUnderlyingVertex().element(), v);
+        topologyVersion++;
 
         String labelText = (v.getUnderlyingVertex().element() != null) ? 
                     v.getUnderlyingVertex().element().toString() :
                     "<NULL>";
         
-        if (graphProperties.getUseVertexTooltip()) {            
+        if (graphProperties.getUseVertexTooltip() && canvasRenderer == null) {            
             Tooltip t = new Tooltip(labelText);
             Tooltip.install(v, t);
         }
@@ -482,21 +716,37 @@ public class SmartGraphPanel<V, E> extends Pane {
             SmartLabel label = new SmartLabel(labelText);
 
             label.getStyleClass().add("vertex-label");
-            this.getChildren().add(label);
+            if (canvasRenderer == null) {
+                this.getChildren().add(label);
+            }
             v.attachLabel(label);
         }
+
+        if (canvasRenderer != null) {
+            canvasRenderer.addVertex(v);
+        }
     }
 
     private void addEdge(SmartGraphEdgeBase e, Edge<E, V> edge) {
         //edges to the back
-        this.getChildren().add(0, (Node) e);
+        if (canvasRenderer == null) {
+            this.getChildren().add(0, (Node) e);
+        }
         edgeNodes.put(edge, e);
+        edgeElementIndex.put(edge.element(), e);
+        if (transposedView) {
+            e.setReversed(true);
+        }
+        if (straightEdges) {
+            e.setStraight(true);
+        }
+        topologyVersion++;
 
         String labelText = (edge.element() != null) ? 
                     edge.element().toString() :
                     "<NULL>";
         
-        if (graphProperties.getUseEdgeTooltip()) {
+        if (graphProperties.getUseEdgeTooltip() && canvasRenderer == null) {
             Tooltip t = new Tooltip(labelText);
             Tooltip.install((Node) e, t);
         }
@@ -505,25 +755,94 @@ public class SmartGraphPanel<V, E> extends Pane {
             SmartLabel label = new SmartLabel(labelText);
 
             label.getStyleClass().add("edge-label");
-            this.getChildren().add(label);
+            if (canvasRenderer == null) {
+                this.getChildren().add(label);
+            }
             e.attachLabel(label);
         }
+
+        if (canvasRenderer != null) {
+            canvasRenderer.addEdge(e);
+        }
     }
 
-    private void insertNodes() {
-        Collection<Vertex<V>> unplottedVertices = unplottedVertices();
+    /*
+    Consumes the changes reported by the observable graph since the last update.
+    Only the net effect is applied, e.g., a vertex inserted and removed in between
+    two updates is never plotted.
+     */
+    private void applyGraphChanges() {
+        Set<Vertex<V>> insertedVertices = new LinkedHashSet<>();
+        Set<Vertex<V>> removedVertices = new LinkedHashSet<>();
+        Set<Edge<E, V>> insertedEdges = new LinkedHashSet<>();
+        Set<Edge<E, V>> removedEdges = new LinkedHashSet<>();
+
+        GraphChange change;
+        while ((change = graphChanges.poll()) != null) {
+            switch (change.type) {
+                case VERTEX_INSERTED:
+                    insertedVertices.add(change.vertex);
+                    break;
+                case VERTEX_REMOVED:
+                    if (!insertedVertices.remove(change.vertex)) {
+                        removedVertices.add(change.vertex);
+                    }
+                    break;
+                case EDGE_INSERTED:
+                    insertedEdges.add(change.edge);
+                    break;
+                case EDGE_REMOVED:
+                    if (!insertedEdges.remove(change.edge)) {
+                        removedEdges.add(change.edge);
+                    }
+                    break;
+                case CLEARED:
+                    insertedVertices.clear();
+                    insertedEdges.clear();
+                    removedVertices.addAll(vertexNodes.keySet());
+                    removedEdges.addAll(edgeNodes.keySet());
+                    break;
+            }
+        }
 
-        List<SmartGraphVertexNode<V>> newVertices = null;
+        //incident edges of removed vertices were reported as removed as well
+        for (Edge<E, V> e : removedEdges) {
+            SmartGraphEdgeBase edgeNode = edgeNodes.remove(e);
+            if (edgeNode != null) {
+                removeEdge(edgeNode);
+            }
+        }
+
+        for (Vertex<V> v : removedVertices) {
+            SmartGraphVertexNode<V> vertexNode = vertexNodes.remove(v);
+            if (vertexNode != null) {
+                for (SmartGraphVertexNode<V> adjacent : vertexNode.getAdjacentVertices()) {
+                    adjacent.removeAdjacentVertex(vertexNode);
+                }
+                removeVertice(vertexNode);
+            }
+        }
+
+        insertNodes(insertedVertices, insertedEdges);
+    }
 
-        Bounds bounds = getPlotBounds();
-        double mx = bounds.getMinX() + bounds.getWidth() / 2.0;
-        double my = bounds.getMinY() + bounds.getHeight() / 2.0;
+    private void insertNodes(Collection<Vertex<V>> unplottedVertices, Collection<Edge<E, V>> unplottedEdges) {
+        List<SmartGraphVertexNode<V>> newVertices = null;
 
         if (!unplottedVertices.isEmpty()) {
 
             newVertices = new LinkedList<>();
 
+            Bounds bounds = getPlotBounds();
+            double mx = bounds.getMinX() + bounds.getWidth() / 2.0;
+            double my = bounds.getMinY() + bounds.getHeight() / 2.0;
+
             for (Vertex<V> vertex : unplottedVertices) {
+                //already plotted, e.g., reported while the panel was being built
+                if (vertexNodes.containsKey(vertex)) {
+                    continue;
+                }
+
                 //create node
                 //Place new nodes in the vicinity of existing adjacent ones;
                 //Place them in the middle of the plot, otherwise.
@@ -568,9 +887,11 @@ public class SmartGraphPanel<V, E> extends Pane {
 
         }
 
-        Collection<Edge<E, V>> unplottedEdges = unplottedEdges();
         if (!unplottedEdges.isEmpty()) {
             for (Edge<E, V> edge : unplottedEdges) {
+                if (edgeNodes.containsKey(edge)) {
+                    continue;
+                }
 
                 Vertex<V>[] vertices = edge.vertices();
                 Vertex<V> u = vertices[0]; //oubound if digraph, by javadoc requirement
@@ -593,7 +914,7 @@ public class SmartGraphPanel<V, E> extends Pane {
 
                 SmartGraphEdgeBase graphEdge = createEdge(edge, graphVertexIn, graphVertexOut);
 
-                if (this.edgesWithArrows) {
+                if (this.edgesWithArrows && canvasRenderer == null) {
                     SmartArrow arrow = new SmartArrow();
                     graphEdge.attachArrow(arrow);
                     this.getChildren().add(arrow);
@@ -661,7 +982,16 @@ public class SmartGraphPanel<V, E> extends Pane {
     }
 
     private void removeEdge(SmartGraphEdgeBase e) {
+        if (canvasRenderer != null) {
+            canvasRenderer.removeEdge(e);
+        }
+        hiddenNodes.remove(e);
+        culledNodes.remove(e);
+        movedNodes.remove(e);
         getChildren().remove((Node) e);
+        Edge<E, V> edge = e.getUnderlyingEdge();
+        edgeElementIndex.remove(edge.element(), e);
+        topologyVersion++;
 
         SmartArrow attachedArrow = e.getAttachedArrow();
         if (attachedArrow != null) {
@@ -674,8 +1004,23 @@ public class SmartGraphPanel<V, E> extends Pane {
         }
     }
 
-    private void removeVertice(SmartGraphVertexNode v) {
+    private void removeVertice(SmartGraphVertexNode<V> v) {
+        if (collapsedLabels.containsKey(v) || collapsedVertices.contains(v)) {
+            //edges of its group may be drawn to it
+            expandAll();
+        }
+        if (canvasRenderer != null) {
+            canvasRenderer.removeVertex(v);
+            v.setPlotArea(null);
+        }
+        v.centerXProperty().removeListener(vertexMovedListener);
+        v.centerYProperty().removeListener(vertexMovedListener);
+        hiddenNodes.remove(v);
+        culledNodes.remove(v);
+        movedNodes.remove(v);
         getChildren().remove(v);
+        vertexElementIndex.remove(v.getUnderlyingVertex().element(), v);
+        topologyVersion++;
 
         Text attachedLabel = v.getAttachedLabel();
         if (attachedLabel != null) {
@@ -691,7 +1036,10 @@ public class SmartGraphPanel<V, E> extends Pane {
             SmartGraphVertexNode<V> vertexNode = vertexNodes.get(v);
             if (vertexNode != null) {
                 SmartLabel label = vertexNode.getAttachedLabel();
-                if(label != null) {
+                String collapsedLabel = collapsedLabels.get(vertexNode);
+                if (label != null && collapsedLabel != null) {
+                    label.setText(collapsedLabel);
+                } else if(label != null) {
                     label.setText(v.element() != null ? v.element().toString() : "<NULL>");
                 }
                 
@@ -735,79 +1083,18 @@ public class SmartGraphPanel<V, E> extends Pane {
     * AUTOMATIC LAYOUT 
      */
     private void computeForces() {
-        for (SmartGraphVertexNode<V> v : vertexNodes.values()) {
-            for (SmartGraphVertexNode<V> other : vertexNodes.values()) {
-                if (v == other) {
-                    continue; //NOP
-                }
-
-                //double k = Math.sqrt(getWidth() * getHeight() / graphVertexMap.size());
-                Point2D repellingForce = repellingForce(v.getUpdatedPosition(), other.getUpdatedPosition(), this.repulsionForce);
-
-                double deltaForceX = 0, deltaForceY = 0;
-
-                //compute attractive and reppeling forces
-                //opt to use internal areAdjacent check, because a vertex can be removed from
-                //the underlying graph before we have the chance to remove it from our
-                //internal data structure
-                if (areAdjacent(v, other)) {
-
-                    Point2D attractiveForce = attractiveForce(v.getUpdatedPosition(), other.getUpdatedPosition(),
-                            vertexNodes.size(), this.attractionForce, this.attractionScale);
-
-                    deltaForceX = attractiveForce.getX() + repellingForce.getX();
-                    deltaForceY = attractiveForce.getY() + repellingForce.getY();
-                } else {
-                    deltaForceX = repellingForce.getX();
-                    deltaForceY = repellingForce.getY();
-                }
-
-                v.addForceVector(deltaForceX, deltaForceY);
-            }
-        }
-    }
-
-    private boolean areAdjacent(SmartGraphVertexNode<V> v, SmartGraphVertexNode<V> u) {
-        return v.isAdjacentTo(u);
+        //double k = Math.sqrt(getWidth() * getHeight() / graphVertexMap.size());
+        layoutState.prepare(repulsionStrategy);
+        layoutState.computeForces(repulsionStrategy, 0, layoutState.size(),
+                this.repulsionForce, this.attractionForce, this.attractionScale);
     }
 
     private void updateForces() {
-        vertexNodes.values().forEach((v) -> {
-            v.updateDelta();
-        });
-    }
-
-    private void applyForces() {
-        vertexNodes.values().forEach((v) -> {
-            v.moveFromForces();
-        });
+        layoutState.updatePositions();
     }
 
-    private void resetForces() {
-        vertexNodes.values().forEach((v) -> {
-            v.resetForces();
-        });
-    }
-
-    private int getTotalEdgesBetween(Vertex<V> v, Vertex<V> u) {
-        //TODO: It may be necessary to adjust this method if you use another Graph
-        //variant, e.g., Digraph (directed graph)
-        int count = 0;
-        for (Edge<E, V> edge : theGraph.edges()) {
-            if (edge.vertices()[0] == v && edge.vertices()[1] == u
-                    || edge.vertices()[0] == u && edge.vertices()[1] == v) {
-                count++;
-            }
-        }
-        return count;
-    }
-
-    private List<Edge<E, V>> listOfEdges() {
-        List<Edge<E, V>> list = new LinkedList<>();
-        for (Edge<E, V> edge : theGraph.edges()) {
-            list.add(edge);
-        }
-        return list;
+    private double applyForces() {
+        return layoutState.applyPositions();
     }
 
     private List<Vertex<V>> listOfVertices() {
@@ -845,7 +1132,8 @@ public class SmartGraphPanel<V, E> extends Pane {
     private Collection<Vertex<V>> removedVertices() {
         List<Vertex<V>> removed = new LinkedList<>();
 
-        Collection<Vertex<V>> graphVertices = theGraph.vertices();
+        //hashed, since the graph's collection may only offer linear lookups
+        Set<Vertex<V>> graphVertices = new HashSet<>(theGraph.vertices());
         Collection<SmartGraphVertexNode<V>> plotted = vertexNodes.values();
 
         for (SmartGraphVertexNode<V> v : plotted) {
@@ -866,7 +1154,7 @@ public class SmartGraphPanel<V, E> extends Pane {
     private Collection<Edge<E, V>> removedEdges() {
         List<Edge<E, V>> removed = new LinkedList<>();
 
-        Collection<Edge<E, V>> graphEdges = theGraph.edges();
+        Set<Edge<E, V>> graphEdges = new HashSet<>(theGraph.edges());
         Collection<SmartGraphEdgeBase> plotted = edgeNodes.values();
 
         for (SmartGraphEdgeBase e : plotted) {
@@ -913,12 +1201,341 @@ public class SmartGraphPanel<V, E> extends Pane {
      * @return stylable element
      */
     public SmartStylableNode getStylableVertex(V vertexElement) {
-        for (Vertex<V> v : vertexNodes.keySet()) {
-            if (v.element().equals(vertexElement)) {
-                return vertexNodes.get(v);
+        return vertexElementIndex.get(vertexElement);
+    }
+
+    /**
+     * Applies the CSS styling defined in class selector <code>cssClass</code>
+     * to several vertices at once, in a single pass on the JavaFX Application
+     * Thread. Vertices that are not displayed are ignored.
+     *
+     * @param vertices underlying vertices
+     * @param cssClass name of the CSS class
+     *
+     * @see SmartStylableNode#setStyleClass(java.lang.String)
+     */
+    public void setVertexStyleClass(Collection<? extends Vertex<V>> vertices, String cssClass) {
+        if (Platform.isFxApplicationThread()) {
+            applyVertexStyleClass(vertices, cssClass);
+        } else {
+            //copied, since the collection may keep changing in the caller's thread
+            List<Vertex<V>> copy = new ArrayList<>(vertices);
+            Platform.runLater(() -> applyVertexStyleClass(copy, cssClass));
+        }
+    }
+
+    /**
+     * Toggles the transposed view, in which every edge is drawn from its
+     * target to its source vertex, e.g., to show the transpose of a digraph
+     * without changing the underlying graph. Edges plotted later follow the
+     * current mode.
+     * <br>
+     * Applied on the JavaFX Application Thread.
+     *
+     * @param transposed true to draw the transposed graph; false, otherwise
+     */
+    public void setTransposedView(boolean transposed) {
+        if (Platform.isFxApplicationThread()) {
+            applyTransposedView(transposed);
+        } else {
+            Platform.runLater(() -> applyTransposedView(transposed));
+        }
+    }
+
+    /**
+     * Returns whether the transposed view is being displayed.
+     *
+     * @return true if edges are drawn reversed; false, otherwise
+     */
+    public boolean isTransposedView() {
+        return transposedView;
+    }
+
+    /**
+     * Collapses each group of vertices, e.g., a strongly connected component,
+     * into a single super-node labelled with all their elements. The first
+     * displayed vertex of the group stands for it and is moved to the centre of
+     * the group; the others are hidden. Edges inside a group are hidden and
+     * edges between groups are drawn once between their super-nodes. Groups of
+     * a single vertex are drawn as usual; vertices and edges plotted later are
+     * not collapsed.
+     * <br>
+     * Applied on the JavaFX Application Thread.
+     *
+     * @param groups groups of underlying vertices; null or empty to expand all
+     */
+    public void setCollapsedView(Collection<? extends Collection<? extends Vertex<V>>> groups) {
+        //copied, since the collections may keep changing in the caller's thread
+        List<List<Vertex<V>>> copy = new ArrayList<>();
+        if (groups != null) {
+            for (Collection<? extends Vertex<V>> group : groups) {
+                copy.add(new ArrayList<>(group));
+            }
+        }
+
+        if (Platform.isFxApplicationThread()) {
+            applyCollapsedView(copy);
+        } else {
+            Platform.runLater(() -> applyCollapsedView(copy));
+        }
+    }
+
+    /**
+     * Returns whether groups of vertices are being displayed collapsed.
+     *
+     * @return true if some group is collapsed; false, otherwise
+     */
+    public boolean isCollapsedView() {
+        return collapsedView;
+    }
+
+    private synchronized void applyCollapsedView(List<List<Vertex<V>>> groups) {
+        expandAll();
+
+        //vertex standing for each hidden vertex
+        Map<SmartGraphVertexNode<V>, SmartGraphVertexNode<V>> representatives = new HashMap<>();
+        for (List<Vertex<V>> group : groups) {
+            List<SmartGraphVertexNode<V>> nodes = new ArrayList<>(group.size());
+            for (Vertex<V> v : group) {
+                SmartGraphVertexNode<V> vertexNode = vertexNodes.get(v);
+                if (vertexNode != null) {
+                    nodes.add(vertexNode);
+                }
+            }
+            if (nodes.size() < 2) {
+                continue;
+            }
+
+            SmartGraphVertexNode<V> representative = nodes.get(0);
+            StringJoiner text = new StringJoiner(", ", "{", "}");
+            double x = 0, y = 0;
+            for (SmartGraphVertexNode<V> vertexNode : nodes) {
+                V element = vertexNode.getUnderlyingVertex().element();
+                text.add(element != null ? element.toString() : "<NULL>");
+                x += vertexNode.getPositionCenterX();
+                y += vertexNode.getPositionCenterY();
+                if (vertexNode != representative) {
+                    representatives.put(vertexNode, representative);
+                    collapsedVertices.add(vertexNode);
+                    setShown(vertexNode, false);
+                }
+            }
+
+            representative.setPosition(x / nodes.size(), y / nodes.size());
+            representative.getStyleClass().add("vertex-collapsed");
+            collapsedLabels.put(representative, text.toString());
+            if (representative.getAttachedLabel() != null) {
+                representative.getAttachedLabel().setText(text.toString());
+            }
+        }
+
+        //one edge per pair of super-nodes, none inside a group
+        Set<Tuple<SmartGraphVertexNode<V>>> drawn = new HashSet<>();
+        for (SmartGraphEdgeBase e : edgeNodes.values()) {
+            Vertex<V>[] ends = e.getUnderlyingEdge().vertices();
+            SmartGraphVertexNode<V> outbound = vertexNodes.get(ends[0]);
+            SmartGraphVertexNode<V> inbound = vertexNodes.get(ends[1]);
+            SmartGraphVertexNode<V> drawnOutbound = representatives.getOrDefault(outbound, outbound);
+            SmartGraphVertexNode<V> drawnInbound = representatives.getOrDefault(inbound, inbound);
+
+            boolean inside = drawnOutbound == drawnInbound && outbound != inbound;
+            if (inside || !drawn.add(new Tuple<>(drawnOutbound, drawnInbound))) {
+                collapsedEdges.add(e);
+                setShown(e, false);
+            } else if (drawnOutbound != outbound || drawnInbound != inbound) {
+                collapsedEdges.add(e);
+                e.redirect(drawnOutbound, drawnInbound);
+            }
+        }
+
+        collapsedView = !collapsedLabels.isEmpty();
+        wakeLayout();
+        invalidateViewport();
+    }
+
+    private void expandAll() {
+        for (SmartGraphVertexNode<V> vertexNode : collapsedVertices) {
+            setShown(vertexNode, true);
+        }
+        for (SmartGraphEdgeBase e : collapsedEdges) {
+            e.redirect(null, null);
+            setShown(e, true);
+        }
+        for (SmartGraphVertexNode<V> representative : collapsedLabels.keySet()) {
+            representative.getStyleClass().remove("vertex-collapsed");
+            V element = representative.getUnderlyingVertex().element();
+            if (representative.getAttachedLabel() != null) {
+                representative.getAttachedLabel().setText(element != null ? element.toString() : "<NULL>");
+            }
+        }
+
+        collapsedVertices.clear();
+        collapsedEdges.clear();
+        collapsedLabels.clear();
+        collapsedView = false;
+    }
+
+    private void setShown(SmartLabelledNode node, boolean shown) {
+        if (shown) {
+            hiddenNodes.remove(node);
+        } else {
+            hiddenNodes.add(node);
+        }
+        refreshVisibility(node);
+    }
+
+    /*
+    Shows a vertex or edge unless collapsed or culled, and its label and arrow
+    only if large enough on screen. Hidden nodes are left out of the layout pass.
+     */
+    private void refreshVisibility(SmartLabelledNode node) {
+        boolean shown = !hiddenNodes.contains(node) && !culledNodes.contains(node);
+        setDisplayed((Node) node, shown);
+
+        SmartLabel label = node.getAttachedLabel();
+        if (label != null) {
+            setDisplayed(label, shown && label.getFont().getSize() * viewScale >= labelMinSize);
+        }
+        if (node instanceof SmartGraphEdgeBase && ((SmartGraphEdgeBase) node).getAttachedArrow() != null) {
+            SmartArrow arrow = ((SmartGraphEdgeBase) node).getAttachedArrow();
+            setDisplayed(arrow, shown && SmartArrow.SIZE * viewScale >= arrowMinSize);
+        }
+    }
+
+    private static void setDisplayed(Node node, boolean displayed) {
+        if (node.isVisible() != displayed) {
+            node.setVisible(displayed);
+            node.setManaged(displayed);
+        }
+    }
+
+    /*
+    Recomputes the viewport culling and level of detail on the next pulse.
+     */
+    private void invalidateViewport() {
+        viewportDirty = true;
+    }
+
+    /*
+    Runs before each layout pass of the scene, so that the edge geometry is final
+    before culling and painting read it.
+     */
+    private void runFramePulse() {
+        runPendingUpdate();
+        geometryPass.run();
+        if (viewportDirty) {
+            viewportDirty = false;
+            applyViewport();
+        } else if (!movedNodes.isEmpty()) {
+            cullMovedNodes();
+        }
+        movedNodes.clear();
+        if (canvasRenderer != null) {
+            canvasRenderer.drawIfDirty();
+        }
+    }
+
+    private synchronized void applyViewport() {
+        Transform transform = getLocalToSceneTransform();
+        viewScale = Math.hypot(transform.getMxx(), transform.getMyx());
+
+        boolean straight = viewScale < curveMinScale;
+        if (straight != straightEdges) {
+            straightEdges = straight;
+            for (SmartGraphEdgeBase e : edgeNodes.values()) {
+                e.setStraight(straight);
+            }
+        }
+
+        //the canvas draws arrows without nodes
+        if (canvasRenderer != null) {
+            canvasRenderer.setArrowsLegible(SmartArrow.SIZE * viewScale >= arrowMinSize);
+        }
+
+        Bounds viewport = getVisibleBounds();
+        for (SmartGraphVertexNode<V> v : vertexNodes.values()) {
+            setCulled(v, viewport);
+        }
+        for (SmartGraphEdgeBase e : edgeNodes.values()) {
+            setCulled(e, viewport);
+        }
+    }
+
+    /*
+    Culls only the vertices and edges that moved since the last pulse, e.g., by the
+    automatic layout or a drag, in the viewport already computed.
+     */
+    private synchronized void cullMovedNodes() {
+        Bounds viewport = getVisibleBounds();
+        if (viewport == null) {
+            return;
+        }
+        for (SmartLabelledNode node : movedNodes) {
+            //a curve may have been recomputed after its edge was removed
+            boolean plotted = node instanceof SmartGraphVertexNode
+                    ? vertexNodes.get(((SmartGraphVertexNode<V>) node).getUnderlyingVertex()) == node
+                    : edgeNodes.get(((SmartGraphEdgeBase<E, V>) node).getUnderlyingEdge()) == node;
+            if (plotted) {
+                setCulled(node, viewport);
+            }
+        }
+    }
+
+    private void setCulled(SmartLabelledNode node, Bounds viewport) {
+        SmartLabel label = node.getAttachedLabel();
+        boolean culled = viewport != null && !viewport.intersects(((Node) node).getBoundsInParent())
+                && (label == null || !viewport.intersects(label.getBoundsInParent()));
+        if (culled) {
+            culledNodes.add(node);
+        } else {
+            culledNodes.remove(node);
+        }
+        refreshVisibility(node);
+    }
+
+    /**
+     * Computes the part of this panel shown on screen, within the scene and
+     * the clips of its ancestors.
+     *
+     * @return bounds in local coordinates; null if not culling
+     */
+    private Bounds getVisibleBounds() {
+        Scene scene = getScene();
+        if (!viewportCulling || scene == null) {
+            return null;
+        }
+
+        double minX = 0, minY = 0, maxX = scene.getWidth(), maxY = scene.getHeight();
+        for (Node ancestor = getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+            if (ancestor.getClip() != null) {
+                Bounds clip = ancestor.localToScene(ancestor.getClip().getBoundsInParent());
+                minX = Math.max(minX, clip.getMinX());
+                minY = Math.max(minY, clip.getMinY());
+                maxX = Math.min(maxX, clip.getMaxX());
+                maxY = Math.min(maxY, clip.getMaxY());
+            }
+        }
+
+        return sceneToLocal(new BoundingBox(minX, minY, Math.max(0, maxX - minX), Math.max(0, maxY - minY)));
+    }
+
+    private synchronized void applyTransposedView(boolean transposed) {
+        if (transposedView == transposed) {
+            return;
+        }
+        transposedView = transposed;
+        for (SmartGraphEdgeBase e : edgeNodes.values()) {
+            e.setReversed(transposed);
+        }
+    }
+
+    private synchronized void applyVertexStyleClass(Collection<? extends Vertex<V>> vertices, String cssClass) {
+        for (Vertex<V> v : vertices) {
+            SmartGraphVertexNode<V> vertexNode = vertexNodes.get(v);
+            if (vertexNode != null) {
+                vertexNode.setStyleClass(cssClass);
             }
         }
-        return null;
     }
 
     /**
@@ -938,12 +1555,7 @@ public class SmartGraphPanel<V, E> extends Pane {
      * @return stylable element
      */
     public SmartStylableNode getStylableEdge(E edgeElement) {
-        for (Edge<E, V> e : edgeNodes.keySet()) {
-            if (e.element().equals(edgeElement)) {
-                return edgeNodes.get(e);
-            }
-        }
-        return null;
+        return edgeElementIndex.get(edgeElement);
     }
 
     /**
@@ -981,7 +1593,9 @@ public class SmartGraphPanel<V, E> extends Pane {
                         return;
                     }
 
-                    Node node = pick(SmartGraphPanel.this, mouseEvent.getSceneX(), mouseEvent.getSceneY());
+                    Node node = canvasRenderer != null
+                            ? canvasRenderer.pick(mouseEvent.getX(), mouseEvent.getY())
+                            : pick(SmartGraphPanel.this, mouseEvent.getSceneX(), mouseEvent.getSceneY());
                     if (node == null) {
                         return;
                     }
@@ -999,6 +1613,61 @@ public class SmartGraphPanel<V, E> extends Pane {
         });
     }
 
+    /**
+     * Kind of change reported by an observable graph.
+     */
+    private enum GraphChangeType {
+        VERTEX_INSERTED, VERTEX_REMOVED, EDGE_INSERTED, EDGE_REMOVED, CLEARED
+    }
+
+    /**
+     * A change reported by an observable graph.
+     */
+    private class GraphChange {
+
+        private final GraphChangeType type;
+        private final Vertex<V> vertex;
+        private final Edge<E, V> edge;
+
+        public GraphChange(GraphChangeType type, Vertex<V> vertex, Edge<E, V> edge) {
+            this.type = type;
+            this.vertex = vertex;
+            this.edge = edge;
+        }
+    }
+
+    /**
+     * Queues the changes of an observable graph, from whatever thread mutates
+     * it, to be applied on the next update.
+     */
+    private class GraphChangeLog implements GraphChangeListener<V, E> {
+
+        @Override
+        public void vertexInserted(Vertex<V> v) {
+            graphChanges.add(new GraphChange(GraphChangeType.VERTEX_INSERTED, v, null));
+        }
+
+        @Override
+        public void vertexRemoved(Vertex<V> v) {
+            graphChanges.add(new GraphChange(GraphChangeType.VERTEX_REMOVED, v, null));
+        }
+
+        @Override
+        public void edgeInserted(Edge<E, V> e) {
+            graphChanges.add(new GraphChange(GraphChangeType.EDGE_INSERTED, null, e));
+        }
+
+        @Override
+        public void edgeRemoved(Edge<E, V> e) {
+            graphChanges.add(new GraphChange(GraphChangeType.EDGE_REMOVED, null, e));
+        }
+
+        @Override
+        public void graphCleared() {
+            graphChanges.add(new GraphChange(GraphChangeType.CLEARED, null, null));
+        }
+    }
+
     /**
      * Represents a tuple in Java.
      *
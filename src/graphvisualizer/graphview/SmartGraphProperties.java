@@ -72,6 +72,39 @@ public class SmartGraphProperties {
     private static final double DEFAULT_ATTRACTION_SCALE = 1;
     private static final String PROPERTY_ATTRACTION_SCALE = "layout.attraction-scale";
 
+    private static final String DEFAULT_REPULSION_STRATEGY = "exact";
+    private static final String PROPERTY_REPULSION_STRATEGY = "layout.repulsion-strategy";
+
+    private static final double DEFAULT_BARNES_HUT_THETA = 0.9;
+    private static final String PROPERTY_BARNES_HUT_THETA = "layout.barnes-hut-theta";
+
+    private static final boolean DEFAULT_LAYOUT_WORKER = false;
+    private static final String PROPERTY_LAYOUT_WORKER = "layout.worker";
+
+    private static final double DEFAULT_LAYOUT_FRAME_BUDGET = 8;
+    private static final String PROPERTY_LAYOUT_FRAME_BUDGET = "layout.frame-budget";
+
+    private static final double DEFAULT_LAYOUT_MAX_ITERATIONS = 20;
+    private static final String PROPERTY_LAYOUT_MAX_ITERATIONS = "layout.max-iterations";
+
+    private static final double DEFAULT_LAYOUT_STABLE_THRESHOLD = 0.05;
+    private static final String PROPERTY_LAYOUT_STABLE_THRESHOLD = "layout.stable-threshold";
+
+    private static final boolean DEFAULT_RENDER_CANVAS = false;
+    private static final String PROPERTY_RENDER_CANVAS = "render.canvas";
+
+    private static final boolean DEFAULT_VIEWPORT_CULLING = true;
+    private static final String PROPERTY_VIEWPORT_CULLING = "viewport.culling";
+
+    private static final double DEFAULT_LOD_LABEL_MIN_SIZE = 6;
+    private static final String PROPERTY_LOD_LABEL_MIN_SIZE = "lod.label-min-size";
+
+    private static final double DEFAULT_LOD_ARROW_MIN_SIZE = 3;
+    private static final String PROPERTY_LOD_ARROW_MIN_SIZE = "lod.arrow-min-size";
+
+    private static final double DEFAULT_LOD_CURVE_MIN_SCALE = 0.5;
+    private static final String PROPERTY_LOD_CURVE_MIN_SCALE = "lod.curve-min-scale";
+
     private static final String DEFAULT_FILE = "smartgraph.properties";
     private Properties properties;
     
@@ -153,6 +186,68 @@ public class SmartGraphProperties {
         return getDoubleProperty(PROPERTY_ATTRACTION_SCALE, DEFAULT_ATTRACTION_SCALE);
     }
     
+    /**
+     * Returns a property that indicates the strategy used to compute the
+     * repelling forces in the automatic force-based layout, i.e.,
+     * <code>exact</code> or <code>barnes-hut</code>.
+     * 
+     * @return corresponding property value
+     */
+    public String getRepulsionStrategy() {
+        return getStringProperty(PROPERTY_REPULSION_STRATEGY, DEFAULT_REPULSION_STRATEGY);
+    }
+    
+    /**
+     * Returns a property that indicates the opening threshold (theta) of the
+     * <code>barnes-hut</code> repulsion strategy.
+     * 
+     * @return corresponding property value
+     */
+    public double getBarnesHutTheta() {
+        return getDoubleProperty(PROPERTY_BARNES_HUT_THETA, DEFAULT_BARNES_HUT_THETA);
+    }
+    
+    /**
+     * Returns a property that indicates whether the automatic force-based
+     * layout is computed by a background worker instead of the JavaFX thread.
+     * 
+     * @return corresponding property value
+     */
+    public boolean getUseLayoutWorker() {
+        return getBooleanProperty(PROPERTY_LAYOUT_WORKER, DEFAULT_LAYOUT_WORKER);
+    }
+    
+    /**
+     * Returns a property that indicates the time, in milliseconds, that the
+     * automatic layout may spend computing iterations in each frame.
+     * 
+     * @return corresponding property value
+     */
+    public double getLayoutFrameBudget() {
+        return getDoubleProperty(PROPERTY_LAYOUT_FRAME_BUDGET, DEFAULT_LAYOUT_FRAME_BUDGET);
+    }
+    
+    /**
+     * Returns a property that indicates the maximum number of iterations the
+     * automatic layout computes in each frame.
+     * 
+     * @return corresponding property value
+     */
+    public int getLayoutMaxIterations() {
+        return (int) getDoubleProperty(PROPERTY_LAYOUT_MAX_ITERATIONS, DEFAULT_LAYOUT_MAX_ITERATIONS);
+    }
+    
+    /**
+     * Returns a property that indicates the movement per iteration, in pixels,
+     * under which the automatic layout is considered stable and stops until the
+     * graph or a vertex position changes.
+     * 
+     * @return corresponding property value
+     */
+    public double getLayoutStableThreshold() {
+        return getDoubleProperty(PROPERTY_LAYOUT_STABLE_THRESHOLD, DEFAULT_LAYOUT_STABLE_THRESHOLD);
+    }
+    
     /**
      * Returns a property that indicates whether a vertex has a tooltip installed.
      * 
@@ -201,6 +296,56 @@ public class SmartGraphProperties {
         return getBooleanProperty(PROPERTY_EDGE_USE_ARROW, DEFAULT_EDGE_USE_ARROW);
     }
     
+    /**
+     * Returns a property that indicates whether the graph is drawn on a single
+     * canvas instead of with a JavaFX node per vertex, edge, arrow and label.
+     * 
+     * @return corresponding property value
+     */
+    public boolean getUseCanvasRenderer() {
+        return getBooleanProperty(PROPERTY_RENDER_CANVAS, DEFAULT_RENDER_CANVAS);
+    }
+    
+    /**
+     * Returns a property that indicates whether vertices and edges outside the
+     * visible part of the panel are hidden.
+     * 
+     * @return corresponding property value
+     */
+    public boolean getUseViewportCulling() {
+        return getBooleanProperty(PROPERTY_VIEWPORT_CULLING, DEFAULT_VIEWPORT_CULLING);
+    }
+    
+    /**
+     * Returns a property that indicates the font size on screen, in pixels,
+     * under which labels are hidden.
+     * 
+     * @return corresponding property value
+     */
+    public double getLabelMinSize() {
+        return getDoubleProperty(PROPERTY_LOD_LABEL_MIN_SIZE, DEFAULT_LOD_LABEL_MIN_SIZE);
+    }
+    
+    /**
+     * Returns a property that indicates the size of arrows on screen, in
+     * pixels, under which they are hidden.
+     * 
+     * @return corresponding property value
+     */
+    public double getArrowMinSize() {
+        return getDoubleProperty(PROPERTY_LOD_ARROW_MIN_SIZE, DEFAULT_LOD_ARROW_MIN_SIZE);
+    }
+    
+    /**
+     * Returns a property that indicates the scale of the panel on screen under
+     * which edges are drawn as straight lines.
+     * 
+     * @return corresponding property value
+     */
+    public double getCurveMinScale() {
+        return getDoubleProperty(PROPERTY_LOD_CURVE_MIN_SCALE, DEFAULT_LOD_CURVE_MIN_SCALE);
+    }
+    
     
     private double getDoubleProperty(String propertyName, double defaultValue) {
         String p = properties.getProperty(propertyName, Double.toString(defaultValue));
@@ -213,6 +358,10 @@ public class SmartGraphProperties {
         
     }
     
+    private String getStringProperty(String propertyName, String defaultValue) {
+        return properties.getProperty(propertyName, defaultValue).trim();
+    }
+    
     private boolean getBooleanProperty(String propertyName, boolean defaultValue) {
         String p = properties.getProperty(propertyName, Boolean.toString(defaultValue));
         try {
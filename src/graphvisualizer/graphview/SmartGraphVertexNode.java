@@ -26,8 +26,10 @@ package graphvisualizer.graphview;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
+import javafx.geometry.Bounds;
 import javafx.geometry.Point2D;
 import javafx.scene.Cursor;
+import javafx.scene.Node;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.shape.Circle;
 import graphvisualizer.graph.Vertex;
@@ -57,12 +59,14 @@ public class SmartGraphVertexNode<T> extends Circle implements SmartGraphVertex<
 
     private SmartLabel attachedLabel = null;
     private boolean isDragging = false;
+    /* pane this vertex is drawn on when it is not one of its children, e.g., by a canvas */
+    private Node plotArea = null;
 
     /*
-    Automatic layout functionality members
+    Automatic layout functionality members, the remaining state is kept by SmartLayoutState
      */
-    private final PointVector forceVector = new PointVector(0, 0);
-    private final PointVector updatedPosition = new PointVector(0, 0);
+    /* dense index of this vertex in the last layout snapshot */
+    private int layoutIndex = -1;
 
     /**
      * Constructor which sets the instance attributes.
@@ -136,6 +140,16 @@ public class SmartGraphVertexNode<T> extends Circle implements SmartGraphVertex<
         return this.adjacentVertices.contains(v);
     }
 
+    /**
+     * Returns the internal set of adjacent vertices, used by the automatic
+     * layout to compute attractive forces without testing every pair.
+     *
+     * @return adjacent vertices (not a copy)
+     */
+    Set<SmartGraphVertexNode<T>> getAdjacentVertices() {
+        return this.adjacentVertices;
+    }
+
     /**
      * Returns the current position of the instance in pixels.
      *
@@ -182,74 +196,76 @@ public class SmartGraphVertexNode<T> extends Circle implements SmartGraphVertex<
     }
 
     /**
-     * Resets the current computed external force vector.
-     *
-     */
-    public void resetForces() {
-        forceVector.x = forceVector.y = 0;
-        updatedPosition.x = getCenterX();
-        updatedPosition.y = getCenterY();
-    }
-
-    /**
-     * Adds the vector represented by <code>(x,y)</code> to the current external
-     * force vector.
+     * Moves the vertex position to the future position computed by the
+     * automatic layout.
+     * <p>
+     * Moves are constrained within the parent pane dimensions.
      *
-     * @param x x-component of the force vector
-     * @param y y-component of the force vector
+     * see SmartGraphPanel#applyForces()
      *
+     * @param x computed x coordinate
+     * @param y computed y coordinate
      */
-    public void addForceVector(double x, double y) {
-        forceVector.x += x;
-        forceVector.y += y;
+    public void moveFromForces(double x, double y) {
+
+        //limit movement to parent bounds
+        double height = getPlotBounds().getHeight();
+        double width = getPlotBounds().getWidth();
+
+        setPosition(boundCenterCoordinate(x, 0, width), boundCenterCoordinate(y, 0, height));
     }
 
     /**
-     * Returns the current external force vector.
+     * Moves the vertex to a position chosen by the user, e.g., while dragging
+     * it, constrained within the pane dimensions.
      *
-     * @return force vector
+     * @param x x coordinate
+     * @param y y coordinate
      */
-    public Point2D getForceVector() {
-        return new Point2D(forceVector.x, forceVector.y);
+    void moveByUser(double x, double y) {
+        setCenterX(boundCenterCoordinate(x, 0, getPlotBounds().getWidth()));
+        setCenterY(boundCenterCoordinate(y, 0, getPlotBounds().getHeight()));
     }
 
     /**
-     * Returns the future position of the vertex.
+     * Sets whether the user is dragging the vertex, in which case the automatic
+     * layout does not move it.
      *
-     * @return future position
+     * @param dragging true while dragging; false, otherwise
      */
-    public Point2D getUpdatedPosition() {
-        return new Point2D(updatedPosition.x, updatedPosition.y);
+    void setDragging(boolean dragging) {
+        this.isDragging = dragging;
     }
 
     /**
-     * Updates the future position according to the current internal force
-     * vector.
+     * Sets the pane this vertex is drawn on without being one of its children.
      *
-     * see SmartGraphPanel#updateForces()
+     * @param plotArea pane; null if the vertex is a child of its pane or no
+     * longer displayed
      */
-    public void updateDelta() {
-        updatedPosition.x = updatedPosition.x /* + speed*/ + forceVector.x;
-        updatedPosition.y = updatedPosition.y + forceVector.y;
+    void setPlotArea(Node plotArea) {
+        this.plotArea = plotArea;
     }
 
     /**
-     * Moves the vertex position to the computed future position.
-     * <p>
-     * Moves are constrained within the parent pane dimensions.
+     * Returns whether this vertex is displayed by a pane.
      *
-     * see SmartGraphPanel#applyForces()
+     * @return true if displayed; false, otherwise
      */
-    public void moveFromForces() {
+    boolean isPlotted() {
+        return plotArea != null || getParent() != null;
+    }
 
-        //limit movement to parent bounds
-        double height = getParent().getLayoutBounds().getHeight();
-        double width = getParent().getLayoutBounds().getWidth();
+    private Bounds getPlotBounds() {
+        return (plotArea != null ? plotArea : getParent()).getLayoutBounds();
+    }
 
-        updatedPosition.x = boundCenterCoordinate(updatedPosition.x, 0, width);
-        updatedPosition.y = boundCenterCoordinate(updatedPosition.y, 0, height);
+    int getLayoutIndex() {
+        return layoutIndex;
+    }
 
-        setPosition(updatedPosition.x, updatedPosition.y);
+    void setLayoutIndex(int layoutIndex) {
+        this.layoutIndex = layoutIndex;
     }
 
     /**
@@ -280,13 +296,7 @@ public class SmartGraphVertexNode<T> extends Circle implements SmartGraphVertex<
 
         setOnMouseDragged((MouseEvent mouseEvent) -> {
             if (mouseEvent.isPrimaryButtonDown()) {
-                double newX = mouseEvent.getX() + dragDelta.x;
-                double x = boundCenterCoordinate(newX, 0, getParent().getLayoutBounds().getWidth());
-                setCenterX(x);
-
-                double newY = mouseEvent.getY() + dragDelta.y;
-                double y = boundCenterCoordinate(newY, 0, getParent().getLayoutBounds().getHeight());
-                setCenterY(y);
+                moveByUser(mouseEvent.getX() + dragDelta.x, mouseEvent.getY() + dragDelta.y);
                 mouseEvent.consume();
             }
 
@@ -0,0 +1,95 @@
+package graphvisualizer.graphview;
+
+/**
+ * Decides how much work the automatic force-based layout of a
+ * {@link SmartGraphPanel} performs on each frame and when it can stop.
+ * <br>
+ * After each frame the panel reports how many iterations were computed, how
+ * long they took and the largest distance a vertex actually moved. From this
+ * the scheduler:
+ * <ul>
+ * <li>chooses the number of iterations for the next frame so that they fit
+ * within the frame-time budget;</li>
+ * <li>reports the layout as stable once the movement per iteration stays below
+ * the threshold for a number of consecutive frames, so that the panel can
+ * suspend its timer until something changes.</li>
+ * </ul>
+ *
+ * @see SmartGraphPanel
+ */
+class SmartLayoutScheduler {
+
+    /* consecutive frames under the threshold before the layout is considered stable */
+    private static final int STABLE_FRAMES = 30;
+    /* weight of the newest sample in the moving average of the iteration cost */
+    private static final double SAMPLE_WEIGHT = 0.2;
+
+    private final long frameBudgetNanos;
+    private final int maxIterations;
+    private final double stableThreshold;
+
+    private double nanosPerIteration = 0;
+    private int iterations;
+    private int stableFrames = 0;
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param frameBudgetMillis time available for layout iterations per frame
+     * @param maxIterations     maximum iterations per frame
+     * @param stableThreshold   movement per iteration, in pixels, under which the
+     *                          layout is considered stable
+     */
+    SmartLayoutScheduler(double frameBudgetMillis, int maxIterations, double stableThreshold) {
+        this.frameBudgetNanos = (long) (frameBudgetMillis * 1_000_000);
+        this.maxIterations = Math.max(1, maxIterations);
+        this.stableThreshold = stableThreshold;
+        this.iterations = this.maxIterations;
+    }
+
+    /**
+     * Returns the number of iterations to compute in the next frame.
+     *
+     * @return number of iterations
+     */
+    int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Reports a computed frame.
+     *
+     * @param computedIterations number of iterations computed
+     * @param elapsedNanos       time spent computing them
+     * @param maxDisplacement    largest distance a vertex moved in the frame
+     */
+    void frameCompleted(int computedIterations, long elapsedNanos, double maxDisplacement) {
+        int n = Math.max(1, computedIterations);
+
+        double sample = (double) elapsedNanos / n;
+        nanosPerIteration = nanosPerIteration == 0 ? sample
+                : (1 - SAMPLE_WEIGHT) * nanosPerIteration + SAMPLE_WEIGHT * sample;
+
+        long affordable = nanosPerIteration > 0 ? (long) (frameBudgetNanos / nanosPerIteration) : maxIterations;
+        iterations = (int) Math.max(1, Math.min(maxIterations, affordable));
+
+        stableFrames = maxDisplacement / n < stableThreshold ? stableFrames + 1 : 0;
+    }
+
+    /**
+     * Returns whether the layout has converged.
+     *
+     * @return true if stable; false otherwise
+     */
+    boolean isStable() {
+        return stableFrames >= STABLE_FRAMES;
+    }
+
+    /**
+     * Forgets about convergence, e.g., after the graph or a vertex position
+     * was changed.
+     */
+    void wake() {
+        stableFrames = 0;
+    }
+}
@@ -0,0 +1,186 @@
+package graphvisualizer.graphview;
+
+import java.util.Collection;
+
+/**
+ * Allocation-free state of the automatic force-based layout, stored as a
+ * struct of primitive arrays indexed by a dense vertex index.
+ * <br>
+ * The force loop of {@link SmartGraphPanel} and of {@link SmartLayoutWorker}
+ * reads and writes these arrays directly; {@link SmartGraphVertexNode}
+ * instances are only touched when synchronizing positions from and to the
+ * scene graph. Adjacencies are kept in compressed sparse row form: the
+ * neighbours of vertex <code>i</code> are
+ * <code>adjacencyTargets[adjacencyOffsets[i] .. adjacencyOffsets[i+1])</code>.
+ *
+ * @see SmartGraphPanel
+ */
+class SmartLayoutState {
+
+    private int count;
+    private SmartGraphVertexNode<?>[] nodes = new SmartGraphVertexNode<?>[0];
+    private double[] x = new double[0], y = new double[0];
+    private double[] fx = new double[0], fy = new double[0];
+    private int[] adjacencyOffsets = new int[1];
+    private int[] adjacencyTargets = new int[0];
+    /* topology version of the panel when the index and adjacencies were built */
+    private int topologyVersion = -1;
+
+    /**
+     * Returns the number of vertices in this state.
+     *
+     * @return number of vertices
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * Copies the current vertex positions into this state. The dense index and
+     * the adjacencies are only rebuilt if <code>version</code> differs from the
+     * one of the last call, i.e., if vertices or edges were added or removed.
+     * <br>
+     * Must be called from the JavaFX thread.
+     *
+     * @param vertices vertices to lay out, always in the same iteration order
+     *                 for the same version
+     * @param version  topology version of the panel
+     */
+    void sync(Collection<? extends SmartGraphVertexNode<?>> vertices, int version) {
+        if (version != topologyVersion || vertices.size() != count) {
+            rebuild(vertices);
+            topologyVersion = version;
+        }
+
+        for (int i = 0; i < count; i++) {
+            x[i] = nodes[i].getCenterX();
+            y[i] = nodes[i].getCenterY();
+        }
+    }
+
+    /**
+     * Prepares the repulsion strategy for the current positions.
+     *
+     * @param strategy repulsion strategy
+     */
+    void prepare(SmartRepulsionStrategy strategy) {
+        strategy.prepare(x, y, count);
+    }
+
+    /**
+     * Computes the forces acting on the vertices in <code>[from, to)</code>. The
+     * strategy must have been prepared for the current positions.
+     *
+     * @param strategy        repulsion strategy
+     * @param from            first vertex index (inclusive)
+     * @param to              last vertex index (exclusive)
+     * @param repulsionForce  repulsion force factor
+     * @param attractionForce attraction force factor
+     * @param attractionScale attraction scale factor
+     */
+    void computeForces(SmartRepulsionStrategy strategy, int from, int to,
+            double repulsionForce, double attractionForce, double attractionScale) {
+
+        final double[] x = this.x, y = this.y, fx = this.fx, fy = this.fy;
+        for (int i = from; i < to; i++) {
+            fx[i] = fy[i] = 0;
+        }
+
+        strategy.accumulate(x, y, from, to, repulsionForce, fx, fy);
+
+        //attractive forces between adjacent vertices
+        final int[] offsets = adjacencyOffsets, targets = adjacencyTargets;
+        for (int i = from; i < to; i++) {
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                int j = targets[k];
+                double dx = x[j] - x[i];
+                double dy = y[j] - y[i];
+                double distance = Math.sqrt(dx * dx + dy * dy);
+                if (distance > 0) {
+                    double factor = UtilitiesPoint2D.attractiveFunction(distance, count,
+                            attractionForce, attractionScale) / distance;
+                    fx[i] += dx * factor;
+                    fy[i] += dy * factor;
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves every vertex of this state according to its computed force.
+     */
+    void updatePositions() {
+        for (int i = 0; i < count; i++) {
+            x[i] += fx[i];
+            y[i] += fy[i];
+        }
+    }
+
+    /**
+     * Moves the vertices of the scene graph to the positions of this state.
+     * <br>
+     * Must be called from the JavaFX thread.
+     *
+     * @return the largest distance a vertex was effectively moved
+     */
+    double applyPositions() {
+        double maxDisplacementSquared = 0;
+        for (int i = 0; i < count; i++) {
+            SmartGraphVertexNode<?> node = nodes[i];
+            //skip vertices removed from the panel in the meantime
+            if (node.isPlotted()) {
+                double oldX = node.getCenterX();
+                double oldY = node.getCenterY();
+                node.moveFromForces(x[i], y[i]);
+
+                double dx = node.getCenterX() - oldX;
+                double dy = node.getCenterY() - oldY;
+                maxDisplacementSquared = Math.max(maxDisplacementSquared, dx * dx + dy * dy);
+            }
+        }
+        return Math.sqrt(maxDisplacementSquared);
+    }
+
+    private void rebuild(Collection<? extends SmartGraphVertexNode<?>> vertices) {
+        int previousCount = count;
+        count = vertices.size();
+        if (nodes.length < count) {
+            int capacity = Math.max(count, nodes.length * 2);
+            nodes = new SmartGraphVertexNode<?>[capacity];
+            x = new double[capacity];
+            y = new double[capacity];
+            fx = new double[capacity];
+            fy = new double[capacity];
+            adjacencyOffsets = new int[capacity + 1];
+        }
+
+        int i = 0;
+        int degrees = 0;
+        for (SmartGraphVertexNode<?> v : vertices) {
+            v.setLayoutIndex(i);
+            nodes[i++] = v;
+            degrees += v.getAdjacentVertices().size();
+        }
+        //release references to vertices of previous (larger) states
+        for (i = count; i < previousCount; i++) {
+            nodes[i] = null;
+        }
+
+        if (adjacencyTargets.length < degrees) {
+            adjacencyTargets = new int[Math.max(degrees, adjacencyTargets.length * 2)];
+        }
+
+        int k = 0;
+        for (i = 0; i < count; i++) {
+            adjacencyOffsets[i] = k;
+            for (SmartGraphVertexNode<?> other : nodes[i].getAdjacentVertices()) {
+                int j = other.getLayoutIndex();
+                //ignore self-loops and vertices that are not part of this state
+                if (j >= 0 && j < count && j != i && nodes[j] == other) {
+                    adjacencyTargets[k++] = j;
+                }
+            }
+        }
+        adjacencyOffsets[count] = k;
+    }
+}
@@ -0,0 +1,221 @@
+package graphvisualizer.graphview;
+
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Computes the automatic force-based layout of a {@link SmartGraphPanel} outside
+ * the JavaFX Application Thread.
+ * <br>
+ * On every pulse the panel calls {@link #applyFinished() } and then
+ * {@link #submit(java.util.Collection, int) }, both on the JavaFX thread:
+ * <ul>
+ * <li><code>submit</code> snapshots the vertex positions and adjacencies into
+ * primitive arrays of the back frame and computes the requested iterations on a
+ * {@link ForkJoinPool}, in parallel over ranges of vertices;</li>
+ * <li>when finished, the worker publishes the back frame, swapping it with the
+ * front one;</li>
+ * <li><code>applyFinished</code> moves the vertices to the positions of the
+ * published frame, which is the only work left on the JavaFX thread.</li>
+ * </ul>
+ * At most one computation is in flight at any time.
+ *
+ * @see SmartGraphPanel
+ */
+class SmartLayoutWorker {
+
+    /* ranges with fewer vertices than this are not split further */
+    private static final int SPLIT_THRESHOLD = 256;
+
+    private final ForkJoinPool pool;
+    private final double repulsionForce;
+    private final double attractionForce;
+    private final double attractionScale;
+    private SmartRepulsionStrategy repulsionStrategy;
+
+    /*
+    DOUBLE BUFFERING. 'back' belongs to the worker while computing; finished frames
+    are published and become the 'front' read by the JavaFX thread.
+     */
+    private SmartLayoutState front = new SmartLayoutState();
+    private SmartLayoutState back = new SmartLayoutState();
+    private final AtomicReference<SmartLayoutState> published = new AtomicReference<>();
+    private volatile boolean computing = false;
+    /* incremented on cancel(), so that results of older computations are dropped */
+    private volatile int generation = 0;
+
+    /* statistics of the last computation, written before it is published */
+    private volatile int lastIterations = 0;
+    private volatile long lastComputeNanos = 0;
+    private double lastMaxDisplacement = 0;
+
+    SmartLayoutWorker(ForkJoinPool pool, SmartRepulsionStrategy repulsionStrategy,
+            double repulsionForce, double attractionForce, double attractionScale) {
+        this.pool = pool;
+        this.repulsionStrategy = repulsionStrategy;
+        this.repulsionForce = repulsionForce;
+        this.attractionForce = attractionForce;
+        this.attractionScale = attractionScale;
+    }
+
+    /**
+     * Sets the repulsion strategy used by the next submitted computation.
+     *
+     * @param repulsionStrategy repulsion strategy
+     */
+    void setRepulsionStrategy(SmartRepulsionStrategy repulsionStrategy) {
+        this.repulsionStrategy = repulsionStrategy;
+    }
+
+    /**
+     * Returns whether a computation is in flight or waiting to be applied.
+     *
+     * @return true if busy; false otherwise
+     */
+    boolean isBusy() {
+        return computing || published.get() != null;
+    }
+
+    /**
+     * Snapshots the positions of <code>nodes</code> and computes
+     * <code>iterations</code> layout iterations in the background. Does nothing
+     * if the worker is busy.
+     * <br>
+     * Must be called from the JavaFX thread.
+     *
+     * @param nodes           vertices to lay out
+     * @param topologyVersion topology version of the panel
+     * @param iterations      number of iterations to compute
+     */
+    void submit(Collection<? extends SmartGraphVertexNode<?>> nodes, int topologyVersion, int iterations) {
+        if (isBusy() || nodes.isEmpty()) {
+            return;
+        }
+
+        final SmartLayoutState frame = back;
+        frame.sync(nodes, topologyVersion);
+
+        final SmartRepulsionStrategy strategy = repulsionStrategy;
+        final int submittedGeneration = generation;
+        computing = true;
+
+        pool.execute(() -> {
+            try {
+                long start = System.nanoTime();
+                for (int i = 0; i < iterations; i++) {
+                    iterate(frame, strategy);
+                }
+                lastComputeNanos = System.nanoTime() - start;
+                lastIterations = iterations;
+                published.set(frame);
+                if (submittedGeneration != generation) {
+                    //cancelled while computing
+                    published.compareAndSet(frame, null);
+                }
+            } catch (RuntimeException ex) {
+                Logger.getLogger(SmartLayoutWorker.class.getName()).log(Level.SEVERE, null, ex);
+            } finally {
+                computing = false;
+            }
+        });
+    }
+
+    /**
+     * Moves the vertices to the positions of the last finished computation, if
+     * any, and swaps the frame buffers.
+     * <br>
+     * Must be called from the JavaFX thread.
+     *
+     * @return true if a frame was applied; false otherwise
+     */
+    boolean applyFinished() {
+        SmartLayoutState frame = published.getAndSet(null);
+        if (frame == null) {
+            return false;
+        }
+
+        lastMaxDisplacement = frame.applyPositions();
+
+        back = front;
+        front = frame;
+        return true;
+    }
+
+    /**
+     * Returns the number of iterations of the last applied frame.
+     *
+     * @return number of iterations
+     */
+    int getLastIterations() {
+        return lastIterations;
+    }
+
+    /**
+     * Returns the time the worker spent computing the last applied frame.
+     *
+     * @return time in nanoseconds
+     */
+    long getLastComputeNanos() {
+        return lastComputeNanos;
+    }
+
+    /**
+     * Returns the largest distance a vertex was moved by the last applied frame.
+     *
+     * @return distance in pixels
+     */
+    double getLastMaxDisplacement() {
+        return lastMaxDisplacement;
+    }
+
+    /**
+     * Discards any computation in flight or waiting to be applied, e.g., when
+     * the automatic layout is stopped.
+     */
+    void cancel() {
+        generation++;
+        published.set(null);
+    }
+
+    private void iterate(SmartLayoutState frame, SmartRepulsionStrategy strategy) {
+        frame.prepare(strategy);
+        new ForceTask(frame, strategy, 0, frame.size()).invoke();
+        frame.updatePositions();
+    }
+
+    /**
+     * Computes the forces acting on a range of vertices, splitting it in halves
+     * while larger than {@link #SPLIT_THRESHOLD}.
+     */
+    private class ForceTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final SmartLayoutState frame;
+        private final SmartRepulsionStrategy strategy;
+        private final int from, to;
+
+        ForceTask(SmartLayoutState frame, SmartRepulsionStrategy strategy, int from, int to) {
+            this.frame = frame;
+            this.strategy = strategy;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ForceTask(frame, strategy, from, middle),
+                        new ForceTask(frame, strategy, middle, to));
+                return;
+            }
+
+            frame.computeForces(strategy, from, to, repulsionForce, attractionForce, attractionScale);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package graphvisualizer.graphview;
+
+/**
+ * Contains the methods that should be implemented when creating new strategies
+ * for computing the repelling forces of the automatic force-based layout.
+ * <br>
+ * Positions and forces are exchanged through primitive arrays indexed by a
+ * dense vertex index, so implementations do not need to know anything about
+ * {@link SmartGraphVertexNode} instances.
+ * <br>
+ * A layout iteration first calls {@link #prepare(double[], double[], int) }
+ * once and then {@link #accumulate(double[], double[], int, int, double, double[], double[]) }
+ * for one or more ranges of vertices. After <code>prepare</code> returns,
+ * <code>accumulate</code> must only read shared state, so that disjoint ranges
+ * can be computed concurrently.
+ *
+ * @see SmartExactRepulsionStrategy
+ * @see SmartBarnesHutRepulsionStrategy
+ * @see SmartGraphPanel
+ */
+public interface SmartRepulsionStrategy {
+
+    /**
+     * Prepares any internal structure needed for the current positions.
+     *
+     * @param x     x-coordinates of the vertices
+     * @param y     y-coordinates of the vertices
+     * @param count number of valid entries in <code>x</code> and <code>y</code>
+     */
+    public void prepare(double[] x, double[] y, int count);
+
+    /**
+     * Adds the repelling force acting on each vertex in <code>[from, to)</code>
+     * to the corresponding entries of <code>fx</code> and <code>fy</code>.
+     *
+     * @param x     x-coordinates of the vertices
+     * @param y     y-coordinates of the vertices
+     * @param from  first vertex index (inclusive)
+     * @param to    last vertex index (exclusive)
+     * @param force repulsion force factor to be used
+     * @param fx    x-components of the force vectors to add to
+     * @param fy    y-components of the force vectors to add to
+     */
+    public void accumulate(double[] x, double[] y, int from, int to, double force, double[] fx, double[] fy);
+}
@@ -0,0 +1,215 @@
+package org.jgrapht.alg.connectivity;
+
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * Tarjan's algorithm, without recursion, on a graph given as compressed sparse
+ * row arrays: the successors of vertex {@code v} are
+ * {@code targets[offsets[v] .. offsets[v + 1])}, and vertices are numbered from
+ * 0 to {@code offsets.length - 2}.
+ *
+ * <p>
+ * The search only works on primitive arrays: an explicit {@code int[]} call
+ * stack with the next edge position of every vertex, the Tarjan stack with a
+ * {@link BitSet} for the on-stack test, and {@code int[]} index and low-link
+ * arrays. It has a running time of $O(V + E)$ and no depth limit other than the
+ * available memory. Components are numbered in the order they are found, which
+ * is a reverse topological order of the condensation.
+ *
+ * <p>
+ * This is the search shared by {@link IterativeTarjan}, the algorithms on the
+ * visualizer's own graphs and the sequential parts of
+ * {@link ParallelStrongConnectivity}; each of them copies its graph, or the
+ * part of it to search, into the arrays.
+ */
+public final class CsrTarjan {
+  /**
+   * Receives the steps of the search, as they happen.
+   */
+  public interface Listener {
+    /**
+     * A vertex was visited ("visit" in phase 1), its low-link was updated
+     * ("updateLowLink" in phase 1), its component is about to be taken
+     * ("takeSCC" in phase 2), or it was taken into it ("visit" in phase 2).
+     *
+     * @param phase 1 while searching, 2 while taking a component
+     * @param group the search tree in phase 1; the component in phase 2
+     * @param action the name of the step
+     * @param v the vertex
+     * @param index its index
+     * @param lowLink its low-link
+     */
+    void step(int phase, int group, String action, int v, int index, int lowLink);
+
+    /**
+     * The Tarjan stack, right before a component is popped from it.
+     *
+     * @param component the component about to be taken
+     * @param stack the stack, from bottom to top; only read during the call
+     * @param size the size of the stack
+     * @param lowLink the low-links of all the vertices; only read during the call
+     */
+    void stack(int component, int[] stack, int size, int[] lowLink);
+  }
+
+  private final int[] offsets;
+  private final int[] targets;
+  private final int[] component;
+  private final Listener listener;
+
+  private final int[] index;
+  private final int[] lowLink;
+  private int nextIndex;
+
+  // explicit DFS call stack and position of the next edge to follow per vertex
+  private final int[] callStack;
+  private final int[] nextEdge;
+
+  private final int[] stack;
+  private int stackSize;
+  private final BitSet onStack;
+
+  private int groupCount;
+
+  private int componentCount;
+
+  private CsrTarjan(int[] offsets, int[] targets, int[] component, Listener listener) {
+    int n = offsets.length - 1;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.component = component;
+    this.listener = listener;
+
+    index = new int[n];
+    Arrays.fill(index, -1);
+    lowLink = new int[n];
+    callStack = new int[n];
+    nextEdge = new int[n];
+    stack = new int[n];
+    onStack = new BitSet(n);
+  }
+
+  /**
+   * Computes the strongly connected components of a graph.
+   *
+   * @param offsets the position of the first successor of every vertex, and
+   *        the number of edges at the end
+   * @param targets the successors of every vertex
+   * @param component receives the component of every vertex
+   * @param listener receives the steps of the search; null if not traced
+   * @return the number of components
+   */
+  public static int components(int[] offsets, int[] targets, int[] component, Listener listener) {
+    CsrTarjan search = new CsrTarjan(offsets, targets, component, listener);
+    for (int root = 0; root < offsets.length - 1; root++) {
+      if (search.index[root] < 0) {
+        search.strongConnect(root);
+        search.groupCount += 1;
+      }
+    }
+    return search.componentCount;
+  }
+
+  /**
+   * Returns a listener emitting the steps of the search as
+   * {@link VisualizationStepTarjan}s.
+   *
+   * @param name the name of a vertex in the steps
+   * @param emit receives the steps
+   * @return the listener
+   */
+  public static Listener tracer(IntFunction<String> name, Consumer<VisualizationStep> emit) {
+    return new Listener() {
+      @Override
+      public void step(int phase, int group, String action, int v, int index, int lowLink) {
+        emit.accept(new VisualizationStepTarjan(phase, group, action, name.apply(v), index, lowLink));
+      }
+
+      @Override
+      public void stack(int component, int[] stack, int size, int[] lowLink) {
+        StringBuilder sb = new StringBuilder();
+        for (int k = 0; k < size; k++) {
+          int v = stack[k];
+          sb.append(name.apply(v)).append('(').append(lowLink[v]).append(')').append(' ');
+        }
+        emit.accept(new VisualizationStepTarjan(2, component, "tarjanStack", sb.toString(), 0, 0));
+      }
+    };
+  }
+
+  /*
+   * The DFS from root. A vertex stays on the call stack until all its edges were
+   * followed; the low-link of its parent is then updated, as after returning
+   * from the recursive call.
+   */
+  private void strongConnect(int root) {
+    int depth = 0;
+    discover(root);
+    callStack[depth++] = root;
+
+    while (depth > 0) {
+      int v = callStack[depth - 1];
+
+      if (nextEdge[v] < offsets[v + 1]) {
+        int w = targets[nextEdge[v]++];
+
+        if (index[w] < 0) {
+          // the "recursion"
+          discover(w);
+          callStack[depth++] = w;
+          continue;
+        } else if (onStack.get(w)) {
+          lowLink[v] = Math.min(lowLink[v], index[w]);
+        }
+        trace(1, groupCount, "updateLowLink", v);
+        continue;
+      }
+
+      // all edges followed
+      if (lowLink[v] == index[v]) {
+        takeComponent(v);
+      }
+
+      depth--;
+      if (depth > 0) {
+        int parent = callStack[depth - 1];
+        lowLink[parent] = Math.min(lowLink[parent], lowLink[v]);
+        trace(1, groupCount, "updateLowLink", parent);
+      }
+    }
+  }
+
+  private void discover(int v) {
+    index[v] = nextIndex;
+    lowLink[v] = nextIndex;
+    nextIndex += 1;
+    nextEdge[v] = offsets[v];
+    stack[stackSize++] = v;
+    onStack.set(v);
+
+    trace(1, groupCount, "visit", v);
+  }
+
+  private void takeComponent(int root) {
+    if (listener != null) {
+      trace(2, componentCount, "takeSCC", root);
+      listener.stack(componentCount, stack, stackSize, lowLink);
+    }
+
+    int w;
+    do {
+      w = stack[--stackSize];
+      onStack.clear(w);
+      component[w] = componentCount;
+      trace(2, componentCount, "visit", w);
+    } while (w != root);
+    componentCount += 1;
+  }
+
+  private void trace(int phase, int group, String action, int v) {
+    if (listener != null) {
+      listener.step(phase, group, action, v, index[v], lowLink[v]);
+    }
+  }
+}
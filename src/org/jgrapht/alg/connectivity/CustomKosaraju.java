@@ -34,12 +34,19 @@ public class CustomKosaraju<V, E> extends AbstractStrongConnectivityInspector<V,
 
   private List<VisualizationStep> vis;
 
+  private VisualizationStepSink sink;
+
   private int groupCount;
 
   public List<VisualizationStep> getVis() {
     return this.vis;
   }
 
+  @Override
+  public void setSink(VisualizationStepSink sink) {
+    this.sink = sink;
+  }
+
   /**
    * Constructor
    *
@@ -75,12 +82,12 @@ public class CustomKosaraju<V, E> extends AbstractStrongConnectivityInspector<V,
 
       // get ready for next dfs round
       resetVertexData();
-      String stack = "";
-      for (VertexData<V> data : orderedVertices) {
-        stack = data.getVertex() + " " + stack;
+      StringBuilder stack = new StringBuilder();
+      for (Iterator<VertexData<V>> it = orderedVertices.descendingIterator(); it.hasNext();) {
+        stack.append(it.next().getVertex()).append(' ');
       }
-      this.vis.add(new VisualizationStep(2, 0, "kosarajuAlgStack", stack));
-      this.vis.add(new VisualizationStep(2, 0, "inverseGraph", ""));
+      emit(new VisualizationStep(2, 0, "kosarajuAlgStack", stack.toString()));
+      emit(new VisualizationStep(2, 0, "inverseGraph", ""));
       groupCount = 0;
 
       // second dfs round: vertices are considered in decreasing
@@ -97,7 +104,7 @@ public class CustomKosaraju<V, E> extends AbstractStrongConnectivityInspector<V,
       }
 
       // clean up for garbage collection
-      this.vis.add(new VisualizationStep(2, 0, "inverseGraph", ""));
+      emit(new VisualizationStep(2, 0, "inverseGraph", ""));
       orderedVertices = null;
       vertexToVertexData = null;
     }
@@ -127,7 +134,7 @@ public class CustomKosaraju<V, E> extends AbstractStrongConnectivityInspector<V,
     stack.add(vertexData);
     if (vertices == null) {
       System.out.println("step0/dfs: " + vertexData.getVertex());
-      this.vis.add(new VisualizationStep(0, groupCount, "dfs", vertexData.getVertex().toString()));
+      emit(new VisualizationStep(0, groupCount, "dfs", vertexData.getVertex().toString()));
     }
 
     while (!stack.isEmpty()) {
@@ -137,10 +144,10 @@ public class CustomKosaraju<V, E> extends AbstractStrongConnectivityInspector<V,
         data.setDiscovered(true);
         if (vertices == null) {
           System.out.println("step1/visit: " + data.getVertex());
-          this.vis.add(new VisualizationStep(1, groupCount, "visit", data.getVertex().toString()));
+          emit(new VisualizationStep(1, groupCount, "visit", data.getVertex().toString()));
         } else {
           System.out.println("step3/visit: " + data.getVertex());
-          this.vis.add(new VisualizationStep(2, groupCount, "visit", data.getVertex().toString()));
+          emit(new VisualizationStep(2, groupCount, "visit", data.getVertex().toString()));
         }
 
         if (vertices != null) {
@@ -159,12 +166,23 @@ public class CustomKosaraju<V, E> extends AbstractStrongConnectivityInspector<V,
           }
         }
       } else if (data.isFinished() && vertices == null) {
-        this.vis.add(new VisualizationStep(1, groupCount, "push2Stack", data.getFinishedData().getVertex().toString()));
+        emit(new VisualizationStep(1, groupCount, "push2Stack", data.getFinishedData().getVertex().toString()));
         orderedVertices.addFirst(data.getFinishedData());
       }
     }
   }
 
+  /*
+   * Hands the step to the sink, if any, or collects it for getVis().
+   */
+  private void emit(VisualizationStep step) {
+    if (sink != null) {
+      sink.accept(step);
+    } else {
+      vis.add(step);
+    }
+  }
+
   /*
    * Resets all VertexData objects.
    */
@@ -34,6 +34,8 @@ public class CustomTarjan<V, E> extends AbstractStrongConnectivityInspector<V, E
 
   private List<VisualizationStep> vis;
 
+  private VisualizationStepSink sink;
+
   private int groupCount;
 
   private int sccIndex;
@@ -44,6 +46,11 @@ public class CustomTarjan<V, E> extends AbstractStrongConnectivityInspector<V, E
     return this.vis;
   }
 
+  @Override
+  public void setSink(VisualizationStepSink sink) {
+    this.sink = sink;
+  }
+
   /**
    * Constructor
    *
@@ -109,7 +116,7 @@ public class CustomTarjan<V, E> extends AbstractStrongConnectivityInspector<V, E
     vertexData.setDiscovered(true);
     orderedVertices.addFirst(vertexData);
     
-    this.vis.add(new VisualizationStepTarjan(1, groupCount, "visit", vertexData.getVertex().toString(), vertexData.getIndex(), vertexData.lowLink));
+    emit(new VisualizationStepTarjan(1, groupCount, "visit", vertexData.getVertex().toString(), vertexData.getIndex(), vertexData.lowLink));
     vertexToLowLink.put(vertexData.getVertex(), vertexData.getLowLink());
 
     // follow all edges
@@ -127,31 +134,43 @@ public class CustomTarjan<V, E> extends AbstractStrongConnectivityInspector<V, E
         vertexData.setLowLink(lowLink);
       }
       System.out.println("update low link: vertex " + targetData.getVertex() + " low link: " + targetData.lowLink);
-      this.vis.add(new VisualizationStepTarjan(1, groupCount, "updateLowLink", vertexData.getVertex().toString(), vertexData.getIndex(), vertexData.getLowLink()));
+      emit(new VisualizationStepTarjan(1, groupCount, "updateLowLink", vertexData.getVertex().toString(), vertexData.getIndex(), vertexData.getLowLink()));
       vertexToLowLink.put(vertexData.getVertex(), vertexData.getLowLink());
     }
 
     if (vertexData.lowLink == vertexData.index) {
-      this.vis.add(new VisualizationStepTarjan(2, sccIndex, "takeSCC", vertexData.getVertex().toString(), vertexData.getIndex(), vertexData.getLowLink()));
+      emit(new VisualizationStepTarjan(2, sccIndex, "takeSCC", vertexData.getVertex().toString(), vertexData.getIndex(), vertexData.getLowLink()));
 
       // print current stack
-      String stack = "";
-      for (VertexData<V> data : orderedVertices) {
-        stack = data.getVertex() +"(" + vertexToLowLink.get(data.getVertex()) + ")" + " " + stack;
+      StringBuilder stack = new StringBuilder();
+      for (Iterator<VertexData<V>> it = orderedVertices.descendingIterator(); it.hasNext();) {
+        V vertex = it.next().getVertex();
+        stack.append(vertex).append('(').append(vertexToLowLink.get(vertex)).append(')').append(' ');
       }
-      this.vis.add(new VisualizationStepTarjan(2, sccIndex, "tarjanStack", stack, 0, 0));
+      emit(new VisualizationStepTarjan(2, sccIndex, "tarjanStack", stack.toString(), 0, 0));
       Set<V> set = new HashSet<>();
       stronglyConnectedSets.add(set);
       VertexData<V> w;
       do {
         w = orderedVertices.removeFirst();
         set.add(w.getVertex());
-        this.vis.add(new VisualizationStepTarjan(2, sccIndex, "visit", w.getVertex().toString(), w.getIndex(), w.getLowLink()));
+        emit(new VisualizationStepTarjan(2, sccIndex, "visit", w.getVertex().toString(), w.getIndex(), w.getLowLink()));
       } while (!orderedVertices.isEmpty() && orderedVertices.getFirst().getLowLink() == vertexData.getLowLink());
       sccIndex += 1;
     }
   }
 
+  /*
+   * Hands the step to the sink, if any, or collects it for getVis().
+   */
+  private void emit(VisualizationStep step) {
+    if (sink != null) {
+      sink.accept(step);
+    } else {
+      vis.add(step);
+    }
+  }
+
   /*
    * Lightweight class storing some data for every vertex.
    */
@@ -0,0 +1,138 @@
+package org.jgrapht.alg.connectivity;
+
+import org.jgrapht.*;
+import org.jgrapht.alg.interfaces.StrongConnectivityVisualizationAlg;
+import org.jgrapht.util.*;
+
+import java.util.*;
+
+/**
+ * Computes strongly connected components of a directed graph with Tarjan's
+ * algorithm, without recursion.
+ *
+ * <p>
+ * Vertices are numbered densely and the graph is copied into compressed sparse
+ * row arrays, so the search itself, {@link CsrTarjan}, only works on primitive
+ * arrays. It has a running time of $O(V + E)$ and no depth limit other than the
+ * available memory.
+ *
+ * <p>
+ * Optionally, the same {@link VisualizationStepTarjan} trace as
+ * {@link CustomTarjan} is recorded, or emitted to a
+ * {@link VisualizationStepSink}. Components are extracted by popping the
+ * stack down to their root, as in the original algorithm.
+ *
+ * @param <V> the graph vertex type
+ * @param <E> the graph edge type
+ */
+public class IterativeTarjan<V, E> extends AbstractStrongConnectivityInspector<V, E>
+    implements StrongConnectivityVisualizationAlg<V, E> {
+  private final boolean traced;
+
+  private List<VisualizationStep> vis;
+
+  private VisualizationStepSink sink;
+
+  // dense numbering and outgoing adjacencies in CSR form
+  private List<V> vertices;
+  private int[] offsets;
+  private int[] targets;
+
+  /**
+   * Constructor, without trace.
+   *
+   * @param graph the input graph
+   * @throws NullPointerException if the input graph is null
+   */
+  public IterativeTarjan(Graph<V, E> graph) {
+    this(graph, false);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param graph the input graph
+   * @param traced whether to record the visualization steps
+   * @throws NullPointerException if the input graph is null
+   */
+  public IterativeTarjan(Graph<V, E> graph, boolean traced) {
+    super(graph);
+    this.traced = traced;
+  }
+
+  @Override
+  public List<VisualizationStep> getVis() {
+    stronglyConnectedSets();
+    return traced ? this.vis : Collections.emptyList();
+  }
+
+  @Override
+  public void setSink(VisualizationStepSink sink) {
+    this.sink = sink;
+  }
+
+  @Override
+  public List<Set<V>> stronglyConnectedSets() {
+    if (stronglyConnectedSets == null) {
+      vis = new ArrayList<>();
+
+      createArrays();
+
+      int n = vertices.size();
+      int[] component = new int[n];
+      CsrTarjan.Listener listener = traced
+          ? CsrTarjan.tracer(v -> vertices.get(v).toString(), this::emit)
+          : null;
+      int count = CsrTarjan.components(offsets, targets, component, listener);
+
+      stronglyConnectedSets = new ArrayList<>(count);
+      for (int c = 0; c < count; c++) {
+        stronglyConnectedSets.add(new HashSet<>());
+      }
+      for (int v = 0; v < n; v++) {
+        stronglyConnectedSets.get(component[v]).add(vertices.get(v));
+      }
+
+      // clean up for garbage collection
+      vertices = null;
+      offsets = targets = null;
+    }
+
+    return stronglyConnectedSets;
+  }
+
+  /*
+   * Numbers the vertices densely and copies the outgoing adjacencies into CSR
+   * arrays.
+   */
+  private void createArrays() {
+    int n = graph.vertexSet().size();
+    vertices = new ArrayList<>(graph.vertexSet());
+    Map<V, Integer> vertexToId = CollectionUtil.newHashMapWithExpectedSize(n);
+    for (int i = 0; i < n; i++) {
+      vertexToId.put(vertices.get(i), i);
+    }
+
+    offsets = new int[n + 1];
+    targets = new int[graph.edgeSet().size()];
+    int k = 0;
+    for (int i = 0; i < n; i++) {
+      offsets[i] = k;
+      for (E edge : graph.outgoingEdgesOf(vertices.get(i))) {
+        targets[k++] = vertexToId.get(graph.getEdgeTarget(edge));
+      }
+    }
+    offsets[n] = k;
+  }
+
+  /*
+   * Hands the step to the sink, if any, or collects it for getVis().
+   */
+  private void emit(VisualizationStep step) {
+    if (sink != null) {
+      sink.accept(step);
+    } else {
+      vis.add(step);
+    }
+  }
+}
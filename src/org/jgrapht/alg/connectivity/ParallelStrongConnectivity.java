@@ -0,0 +1,467 @@
+package org.jgrapht.alg.connectivity;
+
+import org.jgrapht.*;
+import org.jgrapht.alg.interfaces.StrongConnectivityVisualizationAlg;
+import org.jgrapht.util.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Computes strongly connected components of a directed graph in parallel, with
+ * the forward-backward algorithm and trimming, on a {@link ForkJoinPool}.
+ *
+ * <p>
+ * The graph is copied into compressed sparse row arrays of outgoing and
+ * incoming edges. Vertices without predecessors or successors are first trimmed
+ * as singleton components, in parallel rounds. Then, for every remaining
+ * subgraph, the vertices reachable forwards and backwards from a random pivot
+ * are found: their intersection is a component and the other three parts are
+ * independent subgraphs, which are trimmed again and processed in parallel. A
+ * task goes on with the largest part itself and forks the two others, which
+ * are at most half its size, so that the nesting of tasks stays logarithmic
+ * even when every split only removes a small component. Each subgraph is
+ * labeled by a color; colors are never reused, so tasks only write the
+ * vertices of their own subgraph.
+ *
+ * <p>
+ * Subgraphs smaller than the threshold are solved with {@link CsrTarjan} in
+ * the task itself, and graphs smaller than the threshold are delegated to
+ * {@link IterativeTarjan}. No visualization steps are produced.
+ *
+ * @param <V> the graph vertex type
+ * @param <E> the graph edge type
+ */
+public class ParallelStrongConnectivity<V, E> extends AbstractStrongConnectivityInspector<V, E>
+    implements StrongConnectivityVisualizationAlg<V, E> {
+  /** Default size under which (sub)graphs are solved sequentially. */
+  public static final int DEFAULT_THRESHOLD = 10_000;
+
+  // vertices per task in the parallel trimming rounds
+  private static final int TRIM_CHUNK = 4096;
+
+  private final ForkJoinPool pool;
+  private final int threshold;
+
+  // dense numbering and adjacencies in CSR form
+  private List<V> vertices;
+  private int[] outOffsets, outTargets;
+  private int[] inOffsets, inTargets;
+
+  // subgraph of every vertex; -1 once its component is known
+  private int[] color;
+  private int[] component;
+  // position of a vertex in its subgraph, while solved by Tarjan's algorithm
+  private int[] position;
+  private final AtomicInteger nextColor = new AtomicInteger();
+  private final AtomicInteger nextComponent = new AtomicInteger();
+
+  /**
+   * Constructor, using the common pool and the default threshold.
+   *
+   * @param graph the input graph
+   * @throws NullPointerException if the input graph is null
+   */
+  public ParallelStrongConnectivity(Graph<V, E> graph) {
+    this(graph, ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param graph the input graph
+   * @param pool the pool running the tasks
+   * @param threshold size under which (sub)graphs are solved sequentially
+   * @throws NullPointerException if the input graph or pool is null
+   */
+  public ParallelStrongConnectivity(Graph<V, E> graph, ForkJoinPool pool, int threshold) {
+    super(graph);
+    this.pool = Objects.requireNonNull(pool);
+    this.threshold = Math.max(1, threshold);
+  }
+
+  /**
+   * Always empty, since the components are not computed step by step.
+   */
+  @Override
+  public List<VisualizationStep> getVis() {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Ignored, since the components are not computed step by step.
+   */
+  @Override
+  public void setSink(VisualizationStepSink sink) {
+  }
+
+  @Override
+  public List<Set<V>> stronglyConnectedSets() {
+    if (stronglyConnectedSets == null) {
+      if (graph.vertexSet().size() < threshold) {
+        stronglyConnectedSets = new IterativeTarjan<>(graph).stronglyConnectedSets();
+        return stronglyConnectedSets;
+      }
+
+      createArrays();
+      int n = vertices.size();
+
+      // trim in rounds until nothing changes
+      while (pool.invoke(new TrimTask(0, n))) {
+      }
+
+      int[] remaining = new int[n];
+      int size = 0;
+      for (int v = 0; v < n; v++) {
+        if (component[v] < 0) {
+          remaining[size++] = v;
+        }
+      }
+      pool.invoke(new ForwardBackwardTask(Arrays.copyOf(remaining, size), 0, true));
+
+      // group the vertices by component
+      List<Set<V>> sets = new ArrayList<>(nextComponent.get());
+      for (int c = nextComponent.get(); c > 0; c--) {
+        sets.add(new HashSet<>());
+      }
+      for (int v = 0; v < n; v++) {
+        sets.get(component[v]).add(vertices.get(v));
+      }
+      stronglyConnectedSets = sets;
+
+      // clean up for garbage collection
+      vertices = null;
+      outOffsets = outTargets = inOffsets = inTargets = color = component = position = null;
+    }
+
+    return stronglyConnectedSets;
+  }
+
+  /*
+   * Numbers the vertices densely and copies the outgoing and incoming
+   * adjacencies into CSR arrays.
+   */
+  private void createArrays() {
+    int n = graph.vertexSet().size();
+    vertices = new ArrayList<>(graph.vertexSet());
+    Map<V, Integer> vertexToId = CollectionUtil.newHashMapWithExpectedSize(n);
+    for (int i = 0; i < n; i++) {
+      vertexToId.put(vertices.get(i), i);
+    }
+
+    int m = graph.edgeSet().size();
+    outOffsets = new int[n + 1];
+    outTargets = new int[m];
+    inOffsets = new int[n + 1];
+    inTargets = new int[m];
+
+    int out = 0, in = 0;
+    for (int i = 0; i < n; i++) {
+      V v = vertices.get(i);
+      outOffsets[i] = out;
+      for (E edge : graph.outgoingEdgesOf(v)) {
+        outTargets[out++] = vertexToId.get(graph.getEdgeTarget(edge));
+      }
+      inOffsets[i] = in;
+      for (E edge : graph.incomingEdgesOf(v)) {
+        inTargets[in++] = vertexToId.get(graph.getEdgeSource(edge));
+      }
+    }
+    outOffsets[n] = out;
+    inOffsets[n] = in;
+
+    color = new int[n];
+    component = new int[n];
+    Arrays.fill(component, -1);
+    position = new int[n];
+    nextColor.set(1);
+    nextComponent.set(0);
+  }
+
+  /*
+   * Whether v has a neighbor other than itself in subgraph c.
+   */
+  private boolean hasNeighbor(int v, int c, int[] offsets, int[] targets) {
+    for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+      int w = targets[k];
+      if (w != v && color[w] == c) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /*
+   * Whether v is trivially a singleton component of its subgraph.
+   */
+  private boolean trimmable(int v) {
+    int c = color[v];
+    return c >= 0 && (!hasNeighbor(v, c, inOffsets, inTargets) || !hasNeighbor(v, c, outOffsets, outTargets));
+  }
+
+  private void takeSingleton(int v) {
+    color[v] = -1;
+    component[v] = nextComponent.getAndIncrement();
+  }
+
+  /*
+   * Trims subgraph c until no vertex is left without predecessors or
+   * successors in it, and returns the members that remain. The neighbors of a
+   * trimmed vertex are checked again, since they may have lost their last
+   * predecessor or successor.
+   */
+  private int[] trim(int[] members, int c) {
+    int[] stack = new int[16];
+    int size = 0;
+    int trimmed = 0;
+    for (int i = members.length - 1; i >= 0; i--) {
+      if (size == stack.length) {
+        stack = Arrays.copyOf(stack, size * 2);
+      }
+      stack[size++] = members[i];
+    }
+
+    while (size > 0) {
+      int v = stack[--size];
+      if (color[v] != c || !trimmable(v)) {
+        continue;
+      }
+      takeSingleton(v);
+      trimmed++;
+      for (int k = outOffsets[v]; k < outOffsets[v + 1]; k++) {
+        int w = outTargets[k];
+        if (color[w] == c) {
+          if (size == stack.length) {
+            stack = Arrays.copyOf(stack, size * 2);
+          }
+          stack[size++] = w;
+        }
+      }
+      for (int k = inOffsets[v]; k < inOffsets[v + 1]; k++) {
+        int w = inTargets[k];
+        if (color[w] == c) {
+          if (size == stack.length) {
+            stack = Arrays.copyOf(stack, size * 2);
+          }
+          stack[size++] = w;
+        }
+      }
+    }
+
+    if (trimmed == 0) {
+      return members;
+    }
+    int[] remaining = new int[members.length - trimmed];
+    int count = 0;
+    for (int v : members) {
+      if (color[v] == c) {
+        remaining[count++] = v;
+      }
+    }
+    return remaining;
+  }
+
+  /*
+   * Tarjan's algorithm, on a CSR copy of subgraph c.
+   */
+  private void tarjan(int[] members, int c) {
+    int n = members.length;
+    for (int i = 0; i < n; i++) {
+      position[members[i]] = i;
+    }
+
+    int edges = 0;
+    for (int v : members) {
+      for (int k = outOffsets[v]; k < outOffsets[v + 1]; k++) {
+        if (color[outTargets[k]] == c) {
+          edges++;
+        }
+      }
+    }
+    int[] offsets = new int[n + 1];
+    int[] targets = new int[edges];
+    edges = 0;
+    for (int i = 0; i < n; i++) {
+      offsets[i] = edges;
+      int v = members[i];
+      for (int k = outOffsets[v]; k < outOffsets[v + 1]; k++) {
+        int w = outTargets[k];
+        if (color[w] == c) {
+          targets[edges++] = position[w];
+        }
+      }
+    }
+    offsets[n] = edges;
+
+    int[] local = new int[n];
+    int count = CsrTarjan.components(offsets, targets, local, null);
+    int first = nextComponent.getAndAdd(count);
+
+    for (int i = 0; i < n; i++) {
+      color[members[i]] = -1;
+      component[members[i]] = first + local[i];
+    }
+  }
+
+  /**
+   * One round of trimming the vertices without predecessors or successors,
+   * returning whether any was trimmed. Vertices trimmed concurrently by other
+   * tasks may still be seen as present, which only delays their neighbors to
+   * the next round.
+   */
+  private class TrimTask extends RecursiveTask<Boolean> {
+    private static final long serialVersionUID = 1L;
+
+    private final int from, to;
+
+    TrimTask(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Boolean compute() {
+      if (to - from > TRIM_CHUNK) {
+        int middle = (from + to) >>> 1;
+        TrimTask left = new TrimTask(from, middle);
+        left.fork();
+        boolean right = new TrimTask(middle, to).compute();
+        return left.join() | right;
+      }
+
+      boolean changed = false;
+      for (int v = from; v < to; v++) {
+        if (trimmable(v)) {
+          takeSingleton(v);
+          changed = true;
+        }
+      }
+      return changed;
+    }
+  }
+
+  /**
+   * Splits a subgraph, all of whose vertices share the same color, around the
+   * component of a pivot, and goes on with the largest part.
+   */
+  private class ForwardBackwardTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int[] members;
+    private final int c;
+    private final boolean trimmed;
+
+    ForwardBackwardTask(int[] members, int c, boolean trimmed) {
+      this.members = members;
+      this.c = c;
+      this.trimmed = trimmed;
+    }
+
+    @Override
+    protected void compute() {
+      List<ForwardBackwardTask> forked = new ArrayList<>();
+      int[] part = trimmed ? members : trim(members, c);
+      int partColor = c;
+
+      while (part.length >= threshold) {
+        int pivot = part[ThreadLocalRandom.current().nextInt(part.length)];
+        int forward = nextColor.getAndIncrement();
+        int backward = nextColor.getAndIncrement();
+        int scc = nextColor.getAndIncrement();
+
+        // forward closure: partColor -> forward
+        int[] queue = new int[part.length];
+        int head = 0, tail = 0;
+        color[pivot] = forward;
+        queue[tail++] = pivot;
+        while (head < tail) {
+          int v = queue[head++];
+          for (int k = outOffsets[v]; k < outOffsets[v + 1]; k++) {
+            int w = outTargets[k];
+            if (color[w] == partColor) {
+              color[w] = forward;
+              queue[tail++] = w;
+            }
+          }
+        }
+
+        // backward closure: forward -> scc, partColor -> backward
+        head = tail = 0;
+        color[pivot] = scc;
+        queue[tail++] = pivot;
+        while (head < tail) {
+          int v = queue[head++];
+          for (int k = inOffsets[v]; k < inOffsets[v + 1]; k++) {
+            int w = inTargets[k];
+            if (color[w] == forward) {
+              color[w] = scc;
+              queue[tail++] = w;
+            } else if (color[w] == partColor) {
+              color[w] = backward;
+              queue[tail++] = w;
+            }
+          }
+        }
+
+        // the component of the pivot and the three remaining subgraphs
+        int id = nextComponent.getAndIncrement();
+        int forwardSize = 0, backwardSize = 0, restSize = 0;
+        for (int v : part) {
+          int cv = color[v];
+          if (cv == scc) {
+            color[v] = -1;
+            component[v] = id;
+          } else if (cv == forward) {
+            forwardSize++;
+          } else if (cv == backward) {
+            backwardSize++;
+          } else {
+            restSize++;
+          }
+        }
+
+        int[] forwardMembers = new int[forwardSize];
+        int[] backwardMembers = new int[backwardSize];
+        int[] restMembers = new int[restSize];
+        forwardSize = backwardSize = restSize = 0;
+        for (int v : part) {
+          int cv = color[v];
+          if (cv == forward) {
+            forwardMembers[forwardSize++] = v;
+          } else if (cv == backward) {
+            backwardMembers[backwardSize++] = v;
+          } else if (cv == partColor) {
+            restMembers[restSize++] = v;
+          }
+        }
+
+        // fork the two smaller parts and go on with the largest one
+        int[][] parts = { forwardMembers, backwardMembers, restMembers };
+        int[] colors = { forward, backward, partColor };
+        int largest = 0;
+        for (int i = 1; i < 3; i++) {
+          if (parts[i].length > parts[largest].length) {
+            largest = i;
+          }
+        }
+        for (int i = 0; i < 3; i++) {
+          if (i != largest && parts[i].length > 0) {
+            ForwardBackwardTask task = new ForwardBackwardTask(parts[i], colors[i], false);
+            task.fork();
+            forked.add(task);
+          }
+        }
+        part = trim(parts[largest], colors[largest]);
+        partColor = colors[largest];
+      }
+
+      if (part.length > 0) {
+        tarjan(part, partColor);
+      }
+      for (ForwardBackwardTask task : forked) {
+        task.join();
+      }
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package org.jgrapht.alg.connectivity;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Bounded {@link VisualizationStepSink} that hands the steps of an algorithm
+ * running in one thread over to a consumer in another one, e.g., the thread
+ * animating them.
+ *
+ * <p>
+ * The algorithm blocks while the queue is full, so memory stays bounded no
+ * matter how long the trace is, and the consumer can start with the first
+ * steps while the algorithm is still running.
+ */
+public class VisualizationStepQueue implements VisualizationStepSink {
+  // marks the end of the trace; never handed to consumers
+  private static final VisualizationStep END = new VisualizationStep(0, 0, "end", "");
+
+  private final BlockingQueue<VisualizationStep> steps;
+
+  /**
+   * Constructor
+   *
+   * @param capacity maximum number of steps produced but not yet consumed
+   */
+  public VisualizationStepQueue(int capacity) {
+    this.steps = new ArrayBlockingQueue<>(capacity);
+  }
+
+  @Override
+  public void accept(VisualizationStep step) {
+    put(step);
+  }
+
+  @Override
+  public void close() {
+    put(END);
+  }
+
+  /**
+   * Waits for the next step.
+   *
+   * @return the next step, or null if the trace is over or the waiting thread
+   *         was interrupted
+   */
+  public VisualizationStep take() {
+    try {
+      VisualizationStep step = steps.take();
+      if (step == END) {
+        // let other consumers see the end as well
+        steps.offer(END);
+        return null;
+      }
+      return step;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
+
+  private void put(VisualizationStep step) {
+    try {
+      steps.put(step);
+    } catch (InterruptedException e) {
+      // the producer was asked to stop; the step is dropped
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package org.jgrapht.alg.connectivity;
+
+/**
+ * Consumer of the visualization steps emitted by a strong connectivity
+ * algorithm, as they are produced.
+ *
+ * <p>
+ * Steps are emitted by the thread running the algorithm. Once it is done,
+ * {@link #close()} is called, so that consumers waiting for further steps can
+ * finish.
+ */
+public interface VisualizationStepSink {
+  /**
+   * Receives the next step.
+   *
+   * @param step the step
+   */
+  void accept(VisualizationStep step);
+
+  /**
+   * Signals that no further steps will be emitted.
+   */
+  default void close() {
+  }
+}
@@ -0,0 +1,44 @@
+package org.jgrapht.alg.connectivity;
+
+import java.util.*;
+
+/**
+ * Constants of the binary trace format written by
+ * {@link VisualizationTraceWriter} and read by {@link VisualizationTraceReader}.
+ *
+ * <p>
+ * A trace starts with {@link #MAGIC} and {@link #VERSION}, followed by records,
+ * each starting with a tag byte:
+ * <ul>
+ * <li>{@link #TAG_SYMBOL}: a string added to the symbol table, encoded as a
+ * varint length and its UTF-8 bytes; symbols are numbered in order of
+ * appearance and always defined before they are used;</li>
+ * <li>{@link #TAG_STEP} and {@link #TAG_STEP_TARJAN}: a step, encoded as the
+ * action code byte (followed by the action symbol if it is
+ * {@link #ACTION_OTHER}), the phase and group, the vertex and, for Tarjan steps,
+ * the index and low link.</li>
+ * </ul>
+ * All integers are zigzag varints. Vertices are symbols, except for the stack
+ * snapshots of {@link #LITERAL_ACTIONS}, which rarely repeat. Those are written
+ * as the length of the prefix shared with the previous snapshot of the same
+ * action, followed by the remaining characters as a string, since consecutive
+ * snapshots share the bottom of the stack.
+ */
+final class VisualizationTrace {
+  static final byte[] MAGIC = { 'V', 'T', 'R', 'C' };
+  static final byte VERSION = 1;
+
+  static final byte TAG_SYMBOL = 0;
+  static final byte TAG_STEP = 1;
+  static final byte TAG_STEP_TARJAN = 2;
+
+  // actions emitted by the algorithms of this package; the code is the position
+  static final List<String> ACTIONS = List.of("dfs", "visit", "push2Stack", "kosarajuAlgStack", "inverseGraph",
+      "updateLowLink", "takeSCC", "tarjanStack");
+  static final int ACTION_OTHER = 0xFF;
+
+  static final Set<String> LITERAL_ACTIONS = Set.of("kosarajuAlgStack", "tarjanStack");
+
+  private VisualizationTrace() {
+  }
+}
@@ -0,0 +1,184 @@
+package org.jgrapht.alg.connectivity;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+import static org.jgrapht.alg.connectivity.VisualizationTrace.*;
+
+/**
+ * Reads the steps recorded by a {@link VisualizationTraceWriter}.
+ *
+ * <p>
+ * To animate a recording, replay it from a background thread into a
+ * {@link VisualizationStepQueue} consumed by the animation, as the algorithms
+ * themselves do.
+ */
+public class VisualizationTraceReader implements Closeable {
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final FileChannel channel;
+  private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+  private final List<String> symbols = new ArrayList<>();
+  // previous snapshot of each literal action
+  private final Map<String, String> literals = new HashMap<>();
+
+  /**
+   * Constructor
+   *
+   * @param file the file to read
+   * @throws IOException if the file cannot be opened or is not a trace
+   */
+  public VisualizationTraceReader(Path file) throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    buffer.flip();
+
+    try {
+      fill(MAGIC.length + 1);
+      byte[] magic = new byte[MAGIC.length];
+      buffer.get(magic);
+      if (!Arrays.equals(magic, MAGIC) || buffer.get() != VERSION) {
+        throw new IOException("Not a visualization trace: " + file);
+      }
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Reads the next step.
+   *
+   * @return the step, or null at the end of the trace
+   * @throws IOException if reading fails or the trace is corrupt
+   */
+  public VisualizationStep next() throws IOException {
+    for (;;) {
+      if (!buffer.hasRemaining() && !fillSome()) {
+        return null;
+      }
+
+      byte tag = buffer.get();
+      if (tag == TAG_SYMBOL) {
+        symbols.add(getString());
+      } else if (tag == TAG_STEP || tag == TAG_STEP_TARJAN) {
+        return getStep(tag == TAG_STEP_TARJAN);
+      } else {
+        throw new IOException("Corrupt visualization trace: unknown tag " + tag);
+      }
+    }
+  }
+
+  /**
+   * Emits every remaining step to the sink and closes both this reader and the
+   * sink, e.g., to replay a recording into a {@link VisualizationStepQueue}.
+   *
+   * @param sink the sink
+   * @throws IOException if reading fails or the trace is corrupt
+   */
+  public void replayInto(VisualizationStepSink sink) throws IOException {
+    try (VisualizationTraceReader reader = this) {
+      VisualizationStep step;
+      while ((step = reader.next()) != null) {
+        sink.accept(step);
+      }
+    } finally {
+      sink.close();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private VisualizationStep getStep(boolean tarjan) throws IOException {
+    int code = getByte() & 0xFF;
+    if (code != ACTION_OTHER && code >= ACTIONS.size()) {
+      throw new IOException("Corrupt visualization trace: unknown action " + code);
+    }
+    String action = code == ACTION_OTHER ? symbol(getVarint()) : ACTIONS.get(code);
+    int phase = getVarint();
+    int group = getVarint();
+    String vertex = LITERAL_ACTIONS.contains(action) ? getLiteral(action) : symbol(getVarint());
+
+    if (tarjan) {
+      int index = getVarint();
+      int lowLink = getVarint();
+      return new VisualizationStepTarjan(phase, group, action, vertex, index, lowLink);
+    }
+    return new VisualizationStep(phase, group, action, vertex);
+  }
+
+  private String symbol(int id) throws IOException {
+    if (id < 0 || id >= symbols.size()) {
+      throw new IOException("Corrupt visualization trace: undefined symbol " + id);
+    }
+    return symbols.get(id);
+  }
+
+  private String getLiteral(String action) throws IOException {
+    String previous = literals.getOrDefault(action, "");
+    int shared = getVarint();
+    if (shared < 0 || shared > previous.length()) {
+      throw new IOException("Corrupt visualization trace: invalid shared prefix");
+    }
+    String literal = previous.substring(0, shared) + getString();
+    literals.put(action, literal);
+    return literal;
+  }
+
+  private String getString() throws IOException {
+    int length = getVarint();
+    if (length < 0) {
+      throw new IOException("Corrupt visualization trace: negative length");
+    }
+    if (buffer.capacity() < length) {
+      ByteBuffer larger = ByteBuffer.allocate(length);
+      larger.put(buffer).flip();
+      buffer = larger;
+    }
+    fill(length);
+    String s = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+    buffer.position(buffer.position() + length);
+    return s;
+  }
+
+  private int getVarint() throws IOException {
+    int v = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      byte b = getByte();
+      v |= (b & 0x7F) << shift;
+      if (b >= 0) {
+        return (v >>> 1) ^ -(v & 1);
+      }
+    }
+    throw new IOException("Corrupt visualization trace: varint too long");
+  }
+
+  private byte getByte() throws IOException {
+    fill(1);
+    return buffer.get();
+  }
+
+  /*
+   * Makes sure n bytes are buffered; the buffer must be large enough.
+   */
+  private void fill(int n) throws IOException {
+    while (buffer.remaining() < n) {
+      if (!fillSome()) {
+        throw new EOFException("Truncated visualization trace");
+      }
+    }
+  }
+
+  private boolean fillSome() throws IOException {
+    buffer.compact();
+    int read = channel.read(buffer);
+    buffer.flip();
+    return read > 0;
+  }
+}
@@ -0,0 +1,184 @@
+package org.jgrapht.alg.connectivity;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+import static org.jgrapht.alg.connectivity.VisualizationTrace.*;
+
+/**
+ * {@link VisualizationStepSink} that records the steps to a file in the compact
+ * binary format described in {@link VisualizationTrace}, to be replayed later
+ * with {@link VisualizationTraceReader} without re-running the algorithm.
+ *
+ * <p>
+ * Vertex names are interned in a symbol table, so each step costs a few bytes.
+ * The file is complete once {@link #close()} is called.
+ */
+public class VisualizationTraceWriter implements VisualizationStepSink, Closeable {
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final FileChannel channel;
+  private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+  private final Map<String, Integer> symbols = new HashMap<>();
+  // previous snapshot of each literal action
+  private final Map<String, String> literals = new HashMap<>();
+  private boolean closed;
+
+  /**
+   * Constructor, creating or truncating the file.
+   *
+   * @param file the file to write
+   * @throws IOException if the file cannot be opened
+   */
+  public VisualizationTraceWriter(Path file) throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING);
+    buffer.put(MAGIC).put(VERSION);
+  }
+
+  /**
+   * Records a step.
+   *
+   * @param step the step
+   * @throws UncheckedIOException if writing fails
+   */
+  @Override
+  public void accept(VisualizationStep step) {
+    try {
+      write(step);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Flushes the remaining steps and closes the file.
+   *
+   * @throws UncheckedIOException if writing fails
+   */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      try {
+        flush();
+      } finally {
+        channel.close();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void write(VisualizationStep step) throws IOException {
+    int action = ACTIONS.indexOf(step.action);
+    int actionSymbol = action < 0 ? symbol(step.action) : -1;
+    boolean literal = LITERAL_ACTIONS.contains(step.action);
+    int vertexSymbol = literal ? -1 : symbol(step.vertex);
+
+    boolean tarjan = step instanceof VisualizationStepTarjan;
+    ensure(1 + 1 + 5 * 5);
+    buffer.put(tarjan ? TAG_STEP_TARJAN : TAG_STEP);
+    if (action < 0) {
+      buffer.put((byte) ACTION_OTHER);
+      putVarint(actionSymbol);
+    } else {
+      buffer.put((byte) action);
+    }
+    putVarint(step.phase);
+    putVarint(step.group);
+
+    if (literal) {
+      putLiteral(step.action, step.vertex);
+    } else {
+      putVarint(vertexSymbol);
+    }
+
+    if (tarjan) {
+      VisualizationStepTarjan tarjanStep = (VisualizationStepTarjan) step;
+      ensure(2 * 5);
+      putVarint(tarjanStep.index);
+      putVarint(tarjanStep.lowLink);
+    }
+  }
+
+  /*
+   * Returns the id of s in the symbol table, defining it if needed.
+   */
+  private int symbol(String s) throws IOException {
+    Integer id = symbols.get(s);
+    if (id == null) {
+      id = symbols.size();
+      symbols.put(s, id);
+      ensure(1);
+      buffer.put(TAG_SYMBOL);
+      putString(s);
+    }
+    return id;
+  }
+
+  /*
+   * Writes s as the length of the prefix it shares with the previous literal of
+   * the action and the remaining characters.
+   */
+  private void putLiteral(String action, String s) throws IOException {
+    String previous = literals.getOrDefault(action, "");
+    int shared = 0;
+    int max = Math.min(previous.length(), s.length());
+    while (shared < max && previous.charAt(shared) == s.charAt(shared)) {
+      shared++;
+    }
+    // do not split surrogate pairs
+    if (shared > 0 && Character.isHighSurrogate(s.charAt(shared - 1))) {
+      shared--;
+    }
+    literals.put(action, s);
+
+    ensure(5);
+    putVarint(shared);
+    putString(s.substring(shared));
+  }
+
+  private void putString(String s) throws IOException {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    ensure(5 + bytes.length);
+    putVarint(bytes.length);
+    buffer.put(bytes);
+  }
+
+  private void putVarint(int value) {
+    int v = (value << 1) ^ (value >> 31);
+    while ((v & ~0x7F) != 0) {
+      buffer.put((byte) ((v & 0x7F) | 0x80));
+      v >>>= 7;
+    }
+    buffer.put((byte) v);
+  }
+
+  /*
+   * Makes room for n more bytes, flushing or growing the buffer.
+   */
+  private void ensure(int n) throws IOException {
+    if (buffer.remaining() < n) {
+      flush();
+      if (buffer.capacity() < n) {
+        buffer = ByteBuffer.allocate(n);
+      }
+    }
+  }
+
+  private void flush() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+}
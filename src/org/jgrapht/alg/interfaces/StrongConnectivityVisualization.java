@@ -3,7 +3,17 @@ package org.jgrapht.alg.interfaces;
 import java.util.List;
 
 import org.jgrapht.alg.connectivity.VisualizationStep;
+import org.jgrapht.alg.connectivity.VisualizationStepSink;
 
 public interface StrongConnectivityVisualization {
   public List<VisualizationStep> getVis();
+
+  /**
+   * Emits the visualization steps to the sink as they are produced, instead of
+   * collecting them for {@link #getVis()}. Must be set before the components are
+   * computed; the sink is not closed by the algorithm.
+   *
+   * @param sink the sink, or null to collect the steps
+   */
+  public void setSink(VisualizationStepSink sink);
 }
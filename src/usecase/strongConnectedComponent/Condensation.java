@@ -0,0 +1,196 @@
+package usecase.strongConnectedComponent;
+
+import graphvisualizer.graph.Edge;
+import graphvisualizer.graph.Graph;
+import graphvisualizer.graph.Vertex;
+
+import java.util.*;
+
+/**
+ * The condensation of a directed graph: the acyclic graph whose vertices are
+ * its strongly connected components, with an edge between two components
+ * whenever some edge of the graph joins them.
+ *
+ * <p>
+ * Components are numbered from 0 in topological order, so every edge of the
+ * condensation goes from a lower to a higher number. The edges are stored once
+ * each, in compressed sparse row arrays: the successors of component c are the
+ * entries of {@code targets} from {@code offsets[c]} to {@code offsets[c + 1]}.
+ *
+ * <p>
+ * Instances are immutable; {@link CondensationCache} keeps one up to date with
+ * an observable graph.
+ *
+ * @param <V> the vertex element type
+ */
+public final class Condensation<V> {
+  private final List<Set<Vertex<V>>> components;
+  private final Map<Vertex<V>, Integer> componentOf;
+  private final int[] offsets;
+  private final int[] targets;
+
+  private Condensation(List<Set<Vertex<V>>> components, Map<Vertex<V>, Integer> componentOf, int[] offsets,
+      int[] targets) {
+    this.components = components;
+    this.componentOf = componentOf;
+    this.offsets = offsets;
+    this.targets = targets;
+  }
+
+  /**
+   * Builds the condensation of a graph, in time linear in its size. The graph
+   * must not change meanwhile.
+   *
+   * @param graph the input graph
+   * @param <V> the vertex element type
+   * @param <E> the edge element type
+   * @return the condensation
+   */
+  public static <V, E> Condensation<V> of(Graph<V, E> graph) {
+    // Tarjan's algorithm finds the components in reverse topological order
+    List<Set<Vertex<V>>> found = new DigraphTarjan<>(graph, false).stronglyConnectedSets();
+    int n = found.size();
+    List<Set<Vertex<V>>> components = new ArrayList<>(n);
+    Map<Vertex<V>, Integer> componentOf = new HashMap<>(graph.numVertices() * 4 / 3 + 1);
+    for (int c = 0; c < n; c++) {
+      Set<Vertex<V>> members = Collections.unmodifiableSet(found.get(n - 1 - c));
+      components.add(members);
+      for (Vertex<V> v : members) {
+        componentOf.put(v, c);
+      }
+    }
+
+    // one pass over the edges, grouped by source component; an edge is kept
+    // only the first time its target component is seen from that source
+    int[] offsets = new int[n + 1];
+    int[] targets = new int[Math.min(graph.numEdges(), 16)];
+    int[] seenFrom = new int[n];
+    Arrays.fill(seenFrom, -1);
+    int k = 0;
+    for (int c = 0; c < n; c++) {
+      offsets[c] = k;
+      for (Vertex<V> v : components.get(c)) {
+        for (Edge<?, V> edge : graph.outgoingEdges(v)) {
+          int d = componentOf.get(edge.vertices()[1]);
+          if (d != c && seenFrom[d] != c) {
+            seenFrom[d] = c;
+            if (k == targets.length) {
+              targets = Arrays.copyOf(targets, Math.min(graph.numEdges(), 2 * k));
+            }
+            targets[k++] = d;
+          }
+        }
+      }
+    }
+    offsets[n] = k;
+
+    return new Condensation<>(Collections.unmodifiableList(components), componentOf, offsets,
+        Arrays.copyOf(targets, k));
+  }
+
+  /**
+   * Returns the number of strongly connected components.
+   *
+   * @return the number of components
+   */
+  public int componentCount() {
+    return components.size();
+  }
+
+  /**
+   * Returns the number of edges between components.
+   *
+   * @return the number of edges of the condensation
+   */
+  public int edgeCount() {
+    return targets.length;
+  }
+
+  /**
+   * Returns the component of a vertex.
+   *
+   * @param v the vertex
+   * @return its component; -1 if v is not in the graph
+   */
+  public int componentOf(Vertex<V> v) {
+    Integer c = componentOf.get(v);
+    return c == null ? -1 : c;
+  }
+
+  /**
+   * Returns the vertices of a component.
+   *
+   * @param c the component
+   * @return its vertices
+   */
+  public Set<Vertex<V>> members(int c) {
+    return components.get(c);
+  }
+
+  /**
+   * Returns the vertices of all components, in topological order.
+   *
+   * @return the components
+   */
+  public List<Set<Vertex<V>>> components() {
+    return components;
+  }
+
+  /**
+   * Returns the number of components that a component has edges to.
+   *
+   * @param c the component
+   * @return its out-degree in the condensation
+   */
+  public int outDegree(int c) {
+    return offsets[c + 1] - offsets[c];
+  }
+
+  /**
+   * Returns the components that a component has edges to.
+   *
+   * @param c the component
+   * @return a copy of its successors in the condensation
+   */
+  public int[] successors(int c) {
+    return Arrays.copyOfRange(targets, offsets[c], offsets[c + 1]);
+  }
+
+  /**
+   * Returns whether a component can be reached from another one. Components
+   * numbered after the target are not searched, since no path leads back from
+   * them.
+   *
+   * @param from the component to start from
+   * @param to the component to reach
+   * @return true if there is a path from from to to
+   */
+  public boolean reaches(int from, int to) {
+    if (from == to) {
+      return true;
+    }
+    if (from > to) {
+      return false;
+    }
+
+    BitSet visited = new BitSet(to + 1);
+    int[] pending = new int[to - from + 1];
+    int size = 0;
+    pending[size++] = from;
+    visited.set(from);
+    while (size > 0) {
+      int c = pending[--size];
+      for (int k = offsets[c]; k < offsets[c + 1]; k++) {
+        int d = targets[k];
+        if (d == to) {
+          return true;
+        }
+        if (d < to && !visited.get(d)) {
+          visited.set(d);
+          pending[size++] = d;
+        }
+      }
+    }
+    return false;
+  }
+}
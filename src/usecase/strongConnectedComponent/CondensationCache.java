@@ -0,0 +1,91 @@
+package usecase.strongConnectedComponent;
+
+import graphvisualizer.graph.Edge;
+import graphvisualizer.graph.GraphChangeListener;
+import graphvisualizer.graph.ObservableGraph;
+import graphvisualizer.graph.Vertex;
+
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * Holds the {@link Condensation} of an {@link ObservableGraph}, built on first
+ * use and discarded whenever the graph changes.
+ *
+ * @param <V> the vertex element type
+ * @param <E> the edge element type
+ */
+public class CondensationCache<V, E> implements GraphChangeListener<V, E> {
+  private final ObservableGraph<V, E> graph;
+
+  private volatile Condensation<V> condensation;
+
+  /**
+   * Constructor
+   *
+   * @param graph the input graph
+   */
+  public CondensationCache(ObservableGraph<V, E> graph) {
+    this.graph = Objects.requireNonNull(graph);
+    graph.addGraphChangeListener(this);
+  }
+
+  /**
+   * Returns the condensation of the current graph, building it if the graph
+   * changed since the last call.
+   *
+   * @return the condensation
+   */
+  public Condensation<V> get() {
+    Condensation<V> result = condensation;
+    if (result == null) {
+      // holding the graph, so that no change is missed while building
+      synchronized (graph) {
+        result = condensation;
+        if (result == null) {
+          result = Condensation.of(graph);
+          condensation = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Stops following the changes of the graph.
+   */
+  public void detach() {
+    graph.removeGraphChangeListener(this);
+    condensation = null;
+  }
+
+  @Override
+  public void vertexInserted(Vertex<V> v) {
+    condensation = null;
+  }
+
+  @Override
+  public void vertexRemoved(Vertex<V> v) {
+    condensation = null;
+  }
+
+  @Override
+  public void edgeInserted(Edge<E, V> e) {
+    condensation = null;
+  }
+
+  @Override
+  public void edgeRemoved(Edge<E, V> e) {
+    condensation = null;
+  }
+
+  @Override
+  public void bulkInserted(Collection<Vertex<V>> vertices, Collection<Edge<E, V>> edges) {
+    condensation = null;
+  }
+
+  @Override
+  public void graphCleared() {
+    condensation = null;
+  }
+}
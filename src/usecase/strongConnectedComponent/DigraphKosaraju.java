@@ -0,0 +1,248 @@
+package usecase.strongConnectedComponent;
+
+import org.jgrapht.alg.connectivity.*;
+import org.jgrapht.alg.interfaces.*;
+
+import graphvisualizer.graph.CsrDigraph;
+import graphvisualizer.graph.Edge;
+import graphvisualizer.graph.Graph;
+import graphvisualizer.graph.Vertex;
+
+import java.util.*;
+
+/**
+ * Computes the strongly connected components of a {@link Graph} with Kosaraju's
+ * algorithm, directly on its outgoing and incoming edges.
+ *
+ * <p>
+ * The adjacencies are read once into primitive arrays, so no intermediate graph
+ * is built and the graph is not read again while the steps are emitted; in
+ * particular, it may be inverted by whoever animates the "inverseGraph" steps.
+ * The second round follows incoming edges instead of reversing the graph. The
+ * steps are the same as those of {@link CustomKosaraju}.
+ *
+ * @param <V> the vertex element type
+ * @param <E> the edge element type
+ */
+public class DigraphKosaraju<V, E> implements StrongConnectivityVisualization {
+  private final Graph<V, E> graph;
+  private final boolean traced;
+
+  private List<Set<Vertex<V>>> stronglyConnectedSets;
+
+  private List<VisualizationStep> vis;
+
+  private VisualizationStepSink sink;
+
+  // dense numbering and adjacencies in CSR form
+  private List<Vertex<V>> vertices;
+  private int[] outOffsets, outTargets;
+  private int[] inOffsets, inTargets;
+
+  private boolean[] discovered;
+  // vertices in increasing finishing time of the first round
+  private int[] finished;
+  private int finishedCount;
+  // DFS stack; a finishing marker of vertex v is stored as ~v
+  private int[] stack;
+
+  private int groupCount;
+
+  /**
+   * Constructor
+   *
+   * @param graph the input graph
+   * @param traced whether to record the visualization steps
+   */
+  public DigraphKosaraju(Graph<V, E> graph, boolean traced) {
+    this.graph = Objects.requireNonNull(graph);
+    this.traced = traced;
+  }
+
+  @Override
+  public List<VisualizationStep> getVis() {
+    stronglyConnectedSets();
+    return traced ? this.vis : Collections.emptyList();
+  }
+
+  @Override
+  public void setSink(VisualizationStepSink sink) {
+    this.sink = sink;
+  }
+
+  public List<Set<Vertex<V>>> stronglyConnectedSets() {
+    if (stronglyConnectedSets == null) {
+      stronglyConnectedSets = new ArrayList<>();
+      vis = new ArrayList<>();
+      groupCount = 0;
+
+      createArrays();
+      int n = vertices.size();
+
+      // first round of DFS, result is an ordering of the vertices by
+      // finishing time
+      for (int root = 0; root < n; root++) {
+        if (!discovered[root]) {
+          dfsVisit(root, outOffsets, outTargets, null);
+          groupCount += 1;
+        }
+      }
+
+      Arrays.fill(discovered, false);
+      if (traced) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < finishedCount; i++) {
+          sb.append(name(finished[i])).append(' ');
+        }
+        emit(new VisualizationStep(2, 0, "kosarajuAlgStack", sb.toString()));
+        emit(new VisualizationStep(2, 0, "inverseGraph", ""));
+      }
+      groupCount = 0;
+
+      // second round of DFS along incoming edges, in decreasing finishing time
+      // order; every tree found is a strongly connected set
+      for (int i = finishedCount - 1; i >= 0; i--) {
+        int root = finished[i];
+        if (!discovered[root]) {
+          Set<Vertex<V>> set = new HashSet<>();
+          stronglyConnectedSets.add(set);
+          dfsVisit(root, inOffsets, inTargets, set);
+          groupCount += 1;
+        }
+      }
+
+      if (traced) {
+        emit(new VisualizationStep(2, 0, "inverseGraph", ""));
+      }
+
+      // clean up for garbage collection
+      vertices = null;
+      outOffsets = outTargets = inOffsets = inTargets = finished = stack = null;
+      discovered = null;
+    }
+
+    return stronglyConnectedSets;
+  }
+
+  /*
+   * Numbers the vertices densely and copies the outgoing and incoming
+   * adjacencies into CSR arrays.
+   */
+  private void createArrays() {
+    if (graph instanceof CsrDigraph) {
+      // already in this form; its arrays are never modified
+      CsrDigraph<V, E> csr = (CsrDigraph<V, E>) graph;
+      vertices = new ArrayList<>(csr.vertices());
+      outOffsets = csr.outOffsets();
+      outTargets = csr.outTargets();
+      inOffsets = csr.inOffsets();
+      inTargets = csr.inSources();
+    } else {
+      vertices = new ArrayList<>(graph.vertices());
+      int n = vertices.size();
+      Map<Vertex<V>, Integer> vertexToId = new HashMap<>(n * 4 / 3 + 1);
+      for (int i = 0; i < n; i++) {
+        vertexToId.put(vertices.get(i), i);
+      }
+
+      outOffsets = new int[n + 1];
+      inOffsets = new int[n + 1];
+      int m = graph.numEdges();
+      outTargets = new int[m];
+      inTargets = new int[m];
+
+      int out = 0, in = 0;
+      for (int i = 0; i < n; i++) {
+        Vertex<V> v = vertices.get(i);
+        outOffsets[i] = out;
+        for (Edge<E, V> edge : graph.outgoingEdges(v)) {
+          outTargets[out++] = vertexToId.get(edge.vertices()[1]);
+        }
+        inOffsets[i] = in;
+        for (Edge<E, V> edge : graph.incomingEdges(v)) {
+          inTargets[in++] = vertexToId.get(edge.vertices()[0]);
+        }
+      }
+      outOffsets[n] = out;
+      inOffsets[n] = in;
+    }
+
+    int n = vertices.size();
+    discovered = new boolean[n];
+    finished = new int[n];
+    finishedCount = 0;
+    stack = new int[Math.max(16, n)];
+  }
+
+  /*
+   * The DFS from root. NOTE: the set is used to distinguish between 1st and 2nd
+   * round of DFS. set == null: finished vertices are stored (1st round). set !=
+   * null: all vertices found will be saved in the set (2nd round)
+   */
+  private void dfsVisit(int root, int[] offsets, int[] targets, Set<Vertex<V>> set) {
+    if (set == null) {
+      trace(0, "dfs", root);
+    }
+
+    int size = 0;
+    stack[size++] = root;
+
+    while (size > 0) {
+      int top = stack[--size];
+
+      if (top >= 0) {
+        int v = top;
+        if (discovered[v]) {
+          continue;
+        }
+        discovered[v] = true;
+        trace(set == null ? 1 : 2, "visit", v);
+        if (set != null) {
+          set.add(vertices.get(v));
+        }
+
+        int degree = offsets[v + 1] - offsets[v];
+        if (stack.length < size + 1 + degree) {
+          stack = Arrays.copyOf(stack, Math.max(stack.length * 2, size + 1 + degree));
+        }
+        stack[size++] = ~v;
+
+        // follow all edges
+        for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+          if (!discovered[targets[k]]) {
+            // the "recursion"
+            stack[size++] = targets[k];
+          }
+        }
+      } else if (set == null) {
+        int v = ~top;
+        trace(1, "push2Stack", v);
+        finished[finishedCount++] = v;
+      }
+    }
+  }
+
+  /*
+   * Records a step for vertex v; nothing is allocated if the trace is disabled.
+   */
+  private void trace(int phase, String action, int v) {
+    if (traced) {
+      emit(new VisualizationStep(phase, groupCount, action, name(v)));
+    }
+  }
+
+  /*
+   * Hands the step to the sink, if any, or collects it for getVis().
+   */
+  private void emit(VisualizationStep step) {
+    if (sink != null) {
+      sink.accept(step);
+    } else {
+      vis.add(step);
+    }
+  }
+
+  private String name(int v) {
+    return String.valueOf(vertices.get(v).element());
+  }
+}
@@ -0,0 +1,133 @@
+package usecase.strongConnectedComponent;
+
+import org.jgrapht.alg.connectivity.*;
+import org.jgrapht.alg.interfaces.*;
+
+import graphvisualizer.graph.CsrDigraph;
+import graphvisualizer.graph.Edge;
+import graphvisualizer.graph.Graph;
+import graphvisualizer.graph.Vertex;
+
+import java.util.*;
+
+/**
+ * Computes the strongly connected components of a {@link Graph} with Tarjan's
+ * algorithm, directly on its outgoing edges.
+ *
+ * <p>
+ * The outgoing adjacencies are read once into primitive arrays, so no
+ * intermediate graph is built; the search is the one of {@link CsrTarjan},
+ * shared with {@link IterativeTarjan}, and emits the same steps.
+ *
+ * @param <V> the vertex element type
+ * @param <E> the edge element type
+ */
+public class DigraphTarjan<V, E> implements StrongConnectivityVisualization {
+  private final Graph<V, E> graph;
+  private final boolean traced;
+
+  private List<Set<Vertex<V>>> stronglyConnectedSets;
+
+  private List<VisualizationStep> vis;
+
+  private VisualizationStepSink sink;
+
+  // dense numbering and outgoing adjacencies in CSR form
+  private List<Vertex<V>> vertices;
+  private int[] offsets;
+  private int[] targets;
+
+  /**
+   * Constructor
+   *
+   * @param graph the input graph
+   * @param traced whether to record the visualization steps
+   */
+  public DigraphTarjan(Graph<V, E> graph, boolean traced) {
+    this.graph = Objects.requireNonNull(graph);
+    this.traced = traced;
+  }
+
+  @Override
+  public List<VisualizationStep> getVis() {
+    stronglyConnectedSets();
+    return traced ? this.vis : Collections.emptyList();
+  }
+
+  @Override
+  public void setSink(VisualizationStepSink sink) {
+    this.sink = sink;
+  }
+
+  public List<Set<Vertex<V>>> stronglyConnectedSets() {
+    if (stronglyConnectedSets == null) {
+      vis = new ArrayList<>();
+
+      createArrays();
+
+      int n = vertices.size();
+      int[] component = new int[n];
+      CsrTarjan.Listener listener = traced
+          ? CsrTarjan.tracer(v -> String.valueOf(vertices.get(v).element()), this::emit)
+          : null;
+      int count = CsrTarjan.components(offsets, targets, component, listener);
+
+      stronglyConnectedSets = new ArrayList<>(count);
+      for (int c = 0; c < count; c++) {
+        stronglyConnectedSets.add(new HashSet<>());
+      }
+      for (int v = 0; v < n; v++) {
+        stronglyConnectedSets.get(component[v]).add(vertices.get(v));
+      }
+
+      // clean up for garbage collection
+      vertices = null;
+      offsets = targets = null;
+    }
+
+    return stronglyConnectedSets;
+  }
+
+  /*
+   * Numbers the vertices densely and copies the outgoing adjacencies into CSR
+   * arrays.
+   */
+  private void createArrays() {
+    if (graph instanceof CsrDigraph) {
+      // already in this form; its arrays are never modified
+      CsrDigraph<V, E> csr = (CsrDigraph<V, E>) graph;
+      vertices = new ArrayList<>(csr.vertices());
+      offsets = csr.outOffsets();
+      targets = csr.outTargets();
+    } else {
+      vertices = new ArrayList<>(graph.vertices());
+      int n = vertices.size();
+      Map<Vertex<V>, Integer> vertexToId = new HashMap<>(n * 4 / 3 + 1);
+      for (int i = 0; i < n; i++) {
+        vertexToId.put(vertices.get(i), i);
+      }
+
+      offsets = new int[n + 1];
+      targets = new int[graph.numEdges()];
+      int k = 0;
+      for (int i = 0; i < n; i++) {
+        offsets[i] = k;
+        for (Edge<E, V> edge : graph.outgoingEdges(vertices.get(i))) {
+          targets[k++] = vertexToId.get(edge.vertices()[1]);
+        }
+      }
+      offsets[n] = k;
+    }
+  }
+
+  /*
+   * Hands the step to the sink, if any, or collects it for getVis().
+   */
+  private void emit(VisualizationStep step) {
+    if (sink != null) {
+      sink.accept(step);
+    } else {
+      vis.add(step);
+    }
+  }
+}
@@ -0,0 +1,371 @@
+package usecase.strongConnectedComponent;
+
+import graphvisualizer.graph.Edge;
+import graphvisualizer.graph.GraphChangeListener;
+import graphvisualizer.graph.ObservableGraph;
+import graphvisualizer.graph.Vertex;
+
+import org.jgrapht.alg.connectivity.CsrTarjan;
+
+import java.util.*;
+
+/**
+ * Keeps the strongly connected components of an {@link ObservableGraph} up to
+ * date while edges and vertices are inserted and removed, so that the
+ * component of a vertex is known without running an algorithm again.
+ *
+ * <p>
+ * The components are kept in a topological order of the condensation, as in
+ * the algorithm of Pearce and Kelly. An edge that agrees with the order changes
+ * nothing. Otherwise, the components between its endpoints in the order are
+ * searched forwards from its target and backwards from its source: the ones
+ * found by both searches now lie on a cycle and are merged, and the others are
+ * reordered among the positions they already used. Removing an edge inside a
+ * component runs Tarjan's algorithm ({@link CsrTarjan}) on that component only,
+ * splitting it if it is no longer strongly connected.
+ *
+ * <p>
+ * Unlike other listeners, the index updates itself when notified, while the
+ * graph is still locked, because the searches read its adjacencies. Queries
+ * take constant time and may be made from any thread.
+ *
+ * @param <V> the vertex element type
+ * @param <E> the edge element type
+ */
+public class DynamicSccIndex<V, E> implements GraphChangeListener<V, E> {
+  // distance between the positions of consecutive components, left free for splits
+  private static final long GAP = 1L << 20;
+
+  private static final class Component<V> {
+    final Set<Vertex<V>> members = new LinkedHashSet<>();
+    long position;
+  }
+
+  private final ObservableGraph<V, E> graph;
+
+  private final Map<Vertex<V>, Component<V>> componentOf = new HashMap<>();
+
+  // the components, in topological order
+  private final TreeMap<Long, Component<V>> order = new TreeMap<>();
+
+  /**
+   * Computes the components of the graph and follows its changes.
+   *
+   * @param graph the input graph
+   */
+  public DynamicSccIndex(ObservableGraph<V, E> graph) {
+    this.graph = Objects.requireNonNull(graph);
+    synchronized (graph) {
+      rebuild();
+      graph.addGraphChangeListener(this);
+    }
+  }
+
+  /**
+   * Stops following the changes of the graph.
+   */
+  public void detach() {
+    graph.removeGraphChangeListener(this);
+  }
+
+  /**
+   * Returns the strongly connected component of a vertex.
+   *
+   * @param v the vertex
+   * @return the vertices of its component; empty if v is not in the graph
+   */
+  public synchronized Set<Vertex<V>> componentOf(Vertex<V> v) {
+    Component<V> c = componentOf.get(v);
+    return c == null ? Collections.emptySet() : Collections.unmodifiableSet(c.members);
+  }
+
+  /**
+   * Returns whether two vertices are in the same strongly connected component.
+   *
+   * @param u a vertex
+   * @param v a vertex
+   * @return true if each is reachable from the other
+   */
+  public synchronized boolean stronglyConnected(Vertex<V> u, Vertex<V> v) {
+    Component<V> c = componentOf.get(u);
+    return c != null && c == componentOf.get(v);
+  }
+
+  /**
+   * Returns the number of strongly connected components.
+   *
+   * @return the number of components
+   */
+  public synchronized int componentCount() {
+    return order.size();
+  }
+
+  /**
+   * Returns a copy of the strongly connected components, in a topological order
+   * of the condensation: edges between components go from earlier to later
+   * ones.
+   *
+   * @return the components
+   */
+  public synchronized List<Set<Vertex<V>>> components() {
+    List<Set<Vertex<V>>> components = new ArrayList<>(order.size());
+    for (Component<V> c : order.values()) {
+      components.add(new LinkedHashSet<>(c.members));
+    }
+    return components;
+  }
+
+  @Override
+  public synchronized void vertexInserted(Vertex<V> v) {
+    Component<V> c = new Component<>();
+    c.members.add(v);
+    c.position = order.isEmpty() ? 0 : order.lastKey() + GAP;
+    order.put(c.position, c);
+    componentOf.put(v, c);
+  }
+
+  @Override
+  public synchronized void vertexRemoved(Vertex<V> v) {
+    // its edges were removed before, so it is alone in its component
+    Component<V> c = componentOf.remove(v);
+    if (c != null) {
+      c.members.remove(v);
+      if (c.members.isEmpty()) {
+        order.remove(c.position);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void edgeInserted(Edge<E, V> e) {
+    Component<V> source = componentOf.get(e.vertices()[0]);
+    Component<V> target = componentOf.get(e.vertices()[1]);
+    if (source != target && source.position > target.position) {
+      reorder(source, target);
+    }
+  }
+
+  @Override
+  public synchronized void edgeRemoved(Edge<E, V> e) {
+    Component<V> source = componentOf.get(e.vertices()[0]);
+    if (source != null && source == componentOf.get(e.vertices()[1]) && source.members.size() > 1) {
+      split(source);
+    }
+  }
+
+  /**
+   * Computes the components again, which is cheaper than inserting many
+   * elements one by one.
+   */
+  @Override
+  public synchronized void bulkInserted(Collection<Vertex<V>> vertices, Collection<Edge<E, V>> edges) {
+    rebuild();
+  }
+
+  @Override
+  public synchronized void graphCleared() {
+    componentOf.clear();
+    order.clear();
+  }
+
+  /*
+   * Computes the components from scratch. Tarjan's algorithm finds them in
+   * reverse topological order.
+   */
+  private void rebuild() {
+    componentOf.clear();
+    order.clear();
+
+    List<Set<Vertex<V>>> sets = new DigraphTarjan<>(graph, false).stronglyConnectedSets();
+    long position = 0;
+    for (int i = sets.size() - 1; i >= 0; i--) {
+      Component<V> c = new Component<>();
+      c.members.addAll(sets.get(i));
+      c.position = position;
+      position += GAP;
+      order.put(c.position, c);
+      for (Vertex<V> v : c.members) {
+        componentOf.put(v, c);
+      }
+    }
+  }
+
+  /*
+   * Restores the order after inserting an edge from source to target, which
+   * was after it.
+   */
+  private void reorder(Component<V> source, Component<V> target) {
+    Set<Component<V>> forward = search(target, source.position, true);
+    Set<Component<V>> backward = search(source, target.position, false);
+
+    // positions available to the affected components
+    List<Long> positions = new ArrayList<>(forward.size() + backward.size());
+    for (Component<V> c : forward) {
+      positions.add(c.position);
+    }
+    for (Component<V> c : backward) {
+      if (!forward.contains(c)) {
+        positions.add(c.position);
+      }
+    }
+    Collections.sort(positions);
+
+    Component<V> merged = null;
+    if (forward.contains(source)) {
+      // a cycle: merge the components that reach source and are reached from target
+      List<Component<V>> cycle = new ArrayList<>();
+      for (Component<V> c : forward) {
+        if (backward.contains(c)) {
+          cycle.add(c);
+        }
+      }
+      forward.removeAll(cycle);
+      backward.removeAll(cycle);
+
+      merged = Collections.max(cycle, Comparator.comparingInt(c -> c.members.size()));
+      for (Component<V> c : cycle) {
+        order.remove(c.position);
+        if (c != merged) {
+          merged.members.addAll(c.members);
+          for (Vertex<V> v : c.members) {
+            componentOf.put(v, merged);
+          }
+        }
+      }
+    }
+
+    Comparator<Component<V>> byPosition = Comparator.comparingLong(c -> c.position);
+    List<Component<V>> before = new ArrayList<>(backward);
+    before.sort(byPosition);
+    List<Component<V>> sequence = new ArrayList<>(before);
+    if (merged != null) {
+      sequence.add(merged);
+    }
+    List<Component<V>> after = new ArrayList<>(forward);
+    after.sort(byPosition);
+    sequence.addAll(after);
+
+    // earlier components only move backwards and later ones only forwards, so
+    // the edges to and from unaffected components remain in order
+    for (Component<V> c : sequence) {
+      order.remove(c.position);
+    }
+    int first = sequence.size() - after.size();
+    int offset = positions.size() - sequence.size();
+    for (int i = 0; i < sequence.size(); i++) {
+      Component<V> c = sequence.get(i);
+      c.position = positions.get(i < first ? i : i + offset);
+      order.put(c.position, c);
+    }
+  }
+
+  /*
+   * The components reachable from start, following edges forwards or
+   * backwards, without leaving the positions up to (or from) bound.
+   */
+  private Set<Component<V>> search(Component<V> start, long bound, boolean forwards) {
+    Set<Component<V>> visited = new HashSet<>();
+    Deque<Component<V>> pending = new ArrayDeque<>();
+    visited.add(start);
+    pending.push(start);
+
+    while (!pending.isEmpty()) {
+      Component<V> c = pending.pop();
+      for (Vertex<V> v : c.members) {
+        Collection<Edge<E, V>> edges = forwards ? graph.outgoingEdges(v) : graph.incomingEdges(v);
+        for (Edge<E, V> edge : edges) {
+          Component<V> next = componentOf.get(edge.vertices()[forwards ? 1 : 0]);
+          boolean inRange = forwards ? next.position <= bound : next.position >= bound;
+          if (inRange && visited.add(next)) {
+            pending.push(next);
+          }
+        }
+      }
+    }
+    return visited;
+  }
+
+  /*
+   * Runs Tarjan's algorithm on a CSR copy of the edges between the members of c
+   * and replaces it by the components found.
+   */
+  private void split(Component<V> c) {
+    List<Vertex<V>> members = new ArrayList<>(c.members);
+    int n = members.size();
+    Map<Vertex<V>, Integer> local = new HashMap<>(n * 4 / 3 + 1);
+    for (int i = 0; i < n; i++) {
+      local.put(members.get(i), i);
+    }
+
+    int[] offsets = new int[n + 1];
+    int[] targets = new int[16];
+    int edges = 0;
+    for (int i = 0; i < n; i++) {
+      offsets[i] = edges;
+      for (Edge<E, V> edge : graph.outgoingEdges(members.get(i))) {
+        Integer w = local.get(edge.vertices()[1]);
+        if (w == null) {
+          // not in this component
+          continue;
+        }
+        if (edges == targets.length) {
+          targets = Arrays.copyOf(targets, edges * 2);
+        }
+        targets[edges++] = w;
+      }
+    }
+    offsets[n] = edges;
+
+    int[] component = new int[n];
+    int count = CsrTarjan.components(offsets, targets, component, null);
+
+    // found in reverse topological order
+    List<Component<V>> pieces = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      pieces.add(new Component<>());
+    }
+    for (int i = 0; i < n; i++) {
+      pieces.get(component[i]).members.add(members.get(i));
+    }
+
+    if (pieces.size() == 1) {
+      return;
+    }
+
+    // the pieces take the place of c, sources first
+    int k = pieces.size();
+    Long higher = order.higherKey(c.position);
+    if (higher != null && higher - c.position < k) {
+      // a split into more than GAP pieces needs a wider spacing than GAP
+      renumber(Math.max(GAP, k));
+      higher = order.higherKey(c.position);
+    }
+    long step = higher == null ? GAP : (higher - c.position) / k;
+    long position = c.position;
+    order.remove(c.position);
+    for (int i = k - 1; i >= 0; i--) {
+      Component<V> piece = pieces.get(i);
+      piece.position = position;
+      position += step;
+      order.put(piece.position, piece);
+      for (Vertex<V> v : piece.members) {
+        componentOf.put(v, piece);
+      }
+    }
+  }
+
+  /*
+   * Spreads the positions evenly again, spacing apart, once a split ran out of
+   * room.
+   */
+  private void renumber(long spacing) {
+    List<Component<V>> components = new ArrayList<>(order.values());
+    order.clear();
+    long position = 0;
+    for (Component<V> c : components) {
+      c.position = position;
+      position += spacing;
+      order.put(c.position, c);
+    }
+  }
+}
@@ -1,61 +1,60 @@
 package usecase.strongConnectedComponent;
 
-import org.jgrapht.*;
 import org.jgrapht.alg.connectivity.*;
 import org.jgrapht.alg.interfaces.*;
-import org.jgrapht.graph.*;
 
-import graphvisualizer.graph.AdjacencyMapDigraph;
-import graphvisualizer.graph.Edge;
-import graphvisualizer.graph.Vertex;
+import graphvisualizer.graph.CsrDigraph;
+import graphvisualizer.graph.Graph;
 
 import java.util.*;
 
 public class Visualization {
   private String alg;
-  private AdjacencyMapDigraph<String, Integer> graph;
+  private Graph<String, Integer> graph;
 
-  public Visualization(String alg, AdjacencyMapDigraph<String, Integer> graph) {
+  public Visualization(String alg, Graph<String, Integer> graph) {
     this.alg = alg;
     this.graph = graph;
   }
 
   public List<VisualizationStep> visualize() {
-    Graph<String, DefaultEdge> directedGraph = transformGraphToJGraph();
-
-    // computes all the strongly connected components of the directed graph
-    StrongConnectivityAlgorithm<String, DefaultEdge> scAlg = new CustomKosaraju<>(directedGraph);
-    ;
-
-    if (alg.equals("tarjan")) {
-
-      scAlg = new CustomTarjan<>(directedGraph);
-    }
-
-    List<Graph<String, DefaultEdge>> stronglyConnectedSubgraphs = scAlg.getStronglyConnectedComponents();
+    return visualize(null);
+  }
 
-    // prints the strongly connected components
-    System.out.println("Strongly connected components:");
-    for (int i = 0; i < stronglyConnectedSubgraphs.size(); i++) {
-      System.out.println(stronglyConnectedSubgraphs.get(i));
+  /**
+   * Runs the algorithm, emitting its steps to <code>sink</code> as they are
+   * produced; the sink is closed once the algorithm is done.
+   *
+   * @param sink the sink, or null to collect the steps
+   * @return the collected steps; empty if a sink was given
+   */
+  public List<VisualizationStep> visualize(VisualizationStepSink sink) {
+    try {
+      return runAlgorithm(sink);
+    } finally {
+      if (sink != null) {
+        sink.close();
+      }
     }
-
-    return ((StrongConnectivityVisualization) scAlg).getVis();
   }
 
-  private Graph<String, DefaultEdge> transformGraphToJGraph() {
-    Graph<String, DefaultEdge> directedGraph = new DefaultDirectedGraph<String, DefaultEdge>(DefaultEdge.class);
-    for (Vertex<String> vertex : graph.vertices()) {
-      directedGraph.addVertex(vertex.element());
+  private List<VisualizationStep> runAlgorithm(VisualizationStepSink sink) {
+    // computes all the strongly connected components of the directed graph, on
+    // a compact copy, so that the graph is only locked while it is copied;
+    // both digraph implementations serialize their writers on the instance
+    CsrDigraph<String, Integer> snapshot;
+    synchronized (graph) {
+      snapshot = CsrDigraph.of(graph);
     }
+    StrongConnectivityVisualization scAlg = new DigraphKosaraju<>(snapshot, true);
 
-    for (Edge<Integer, String> edge : graph.edges()) {
-      Vertex<String>[] verties = edge.vertices();
-      directedGraph.addEdge(verties[0].element(), verties[1].element());
-
-      System.out.println(verties[0].element() + "->" + verties[1].element());
+    // the recursive and iterative Tarjan engines were replaced by the iterative
+    // search of CsrTarjan, which DigraphTarjan runs; both names select it
+    if (alg.equals("tarjan") || alg.equals("tarjan-iterative")) {
+      scAlg = new DigraphTarjan<>(snapshot, true);
     }
 
-    return directedGraph;
+    scAlg.setSink(sink);
+    return scAlg.getVis();
   }
 }